@@ -50,10 +50,12 @@ public class CMCS extends FCTPheur {
      *                    iterations without improvement
      */
     public void Solve(int time_budget) {
-        // Initialize solution
-        if(randgen.nextBoolean() == true) RandGreedy(0.3);
-        else LPheu();
-        Kicksolution((m+n-1)/2);
+        // Initialize solution (from the stored incumbent if there is one)
+        if (!warmStart()) {
+            if(randgen.nextBoolean() == true) RandGreedy(0.3);
+            else LPheu();
+            Kicksolution((m+n-1)/2);
+        }
 
         double old_cost = solution.totalCost;
         best_sol = new FCTPsol( solution );
@@ -106,7 +108,9 @@ public class CMCS extends FCTPheur {
         }
 
         solution.Overwrite(best_sol);
+        storeSolution();
         System.out.println("Best solution value: " + best_sol.totalCost);
+        if (getSampleSize() != null) System.out.println(getSampleSize());
 
         //Log result
         try {
@@ -186,6 +190,7 @@ public class CMCS extends FCTPheur {
         // Tell class FCTPparam about initialization file, input and output filename
         FCTPparam.setParam(FCTPparam.INPUTFILE, args[0]);
         if (args.length > 1) FCTPparam.setParam(FCTPparam.OUTPUTFILE, args[1]);
+        if (args.length > 2) FCTPparam.setParam(FCTPparam.SOLUTIONFILE, args[2]);
         FCTPparam.setParam(FCTPparam.INITFILE, "FCTPheur.ini");
 
         // configuration: [[[False, False, True], [False, True, False], [False, True, False]], [[False, True, False], [False, False, True], [True, False, False]]]
@@ -0,0 +1,139 @@
+/**
+ * Active pool of promising non-basic arcs for local search methods that work in the manner of
+ * column generation. A full pricing evaluates the cost saving of the basic exchange introducing
+ * each non-basic arc of the current solution and keeps the capacity arcs with largest savings in
+ * the pool; arcs that are no longer among them are dropped. The local search then only evaluates
+ * the arcs in the pool until the pool does not contain an improving arc anymore or the pool
+ * becomes stale, that is maxAge basic exchanges have been made since the last pricing or the 
+ * current solution has been replaced by another one.
+ *
+ * Counters record the number of full pricings, of basic exchanges and of arcs evaluated in
+ * the pool, so that the frequency of full pricings can be reported (see toString).
+ *
+ * @version 19/10/2026
+ */
+public class FCTParcPool
+{
+  /** instance (and current solution) the pool belongs to */
+  private FCTPbas inst;
+
+  /** maximum number of arcs in the pool */
+  public final int capacity;
+
+  /** number of basic exchanges after which the pool is considered stale */
+  public final int maxAge;
+
+  /** arcs in the pool: arcs[0], ..., arcs[len-1] */
+  public int[] arcs;
+
+  /** number of arcs in the pool */
+  public int len = 0;
+
+  /** basic exchanges made since the last full pricing */
+  private int age = 0;
+
+  /** predecessor labels of the basis tree of the solution after the last pricing or exchange */
+  private int[] tree;
+
+  /** heap used to select the arcs with largest saving */
+  private FCTPheap heap;
+
+  /** number of full pricings */
+  public long numPricings = 0;
+
+  /** number of basic exchanges made */
+  public long numPivots = 0;
+
+  /** number of arcs evaluated within the pool */
+  public long numEvals = 0;
+
+  /**
+   * Constructor
+   *
+   * @param inst     the FCTP instance whose current solution is priced
+   * @param capacity maximum number of arcs in the pool
+   * @param maxAge   number of basic exchanges after which the pool is priced anew
+   */
+  public FCTParcPool( FCTPbas inst, int capacity, int maxAge )
+  {
+    this.inst = inst;
+    this.capacity = Math.max( 1, Math.min( capacity, inst.narcs ) );
+    this.maxAge = Math.max( 1, maxAge );
+    arcs = new int[this.capacity];
+    tree = new int[inst.solution.tree_p.length];
+    heap = new FCTPheap( this.capacity+1 );
+  }
+
+  /**
+   * Full pricing: evaluates all non-basic arcs of the current solution and fills the pool with
+   * the arcs of largest cost saving. Arcs with zero saving (degenerate exchanges) are ignored.
+   *
+   * @return true if at least one non-basic arc is improving
+   */
+  public boolean price( )
+  {
+    FCTPsol sol = inst.solution;
+    double bestSav = -Double.MAX_VALUE;
+    heap.clear( );
+    for ( int arc=0; arc < inst.narcs; arc++ ) if ( sol.arc_stat[arc] != inst.BASIC )
+    {
+      double saving = inst.getCostSav( arc );
+      if ( saving > bestSav ) bestSav = saving;
+      if ( saving == 0 ) continue;
+      heap.push( saving, arc, arc, 0 );
+      if ( heap.size( ) > capacity ) heap.pop( );
+    }
+    len = 0;
+    while ( heap.pop( ) ) arcs[len++] = heap.topItem;
+    numPricings++;
+    age = 0;
+    System.arraycopy( sol.tree_p, 0, tree, 0, tree.length );
+    return( bestSav > FCTPparam.tolval );
+  }
+
+  /**
+   * Step t of a partial Fisher-Yates shuffle of the arcs in the pool: the calls draw( 0, rnd ), ..., 
+   * draw( k-1, rnd ) return k distinct arcs of the pool drawn uniformly at random.
+   *
+   * @param t   number of arcs drawn before (0 <= t < len)
+   * @param rnd random number generator
+   * @return the next randomly drawn arc
+   */
+  public int draw( int t, java.util.Random rnd )
+  {
+    int r = t + rnd.nextInt( len-t );
+    int arc = arcs[r];
+    arcs[r] = arcs[t];
+    arcs[t] = arc;
+    return( arc );
+  }
+
+  /** Records that a basic exchange has been made on the current solution */
+  public void pivoted( )
+  {
+    numPivots++;
+    age++;
+    System.arraycopy( inst.solution.tree_p, 0, tree, 0, tree.length );
+  }
+
+  /** Returns true if the pool has to be priced anew (since it is empty or stale) */
+  public boolean isStale( )
+  {
+    return( ( len == 0 ) || ( age >= maxAge ) || ! java.util.Arrays.equals( tree, inst.solution.tree_p ) );
+  }
+
+  /** Resets the counters */
+  public void resetCounters( )
+  {
+    numPricings = numPivots = numEvals = 0;
+  }
+
+  /** Returns a summary of the counters */
+  public String toString( )
+  {
+    double rate = ( numPricings > 0 ) ? (double)numPivots/numPricings : 0.0;
+    return( String.format( "Arc pool: %d full pricings, %d basic exchanges (%.1f per pricing), %d pool evaluations",
+                           numPricings, numPivots, rate, numEvals ) );
+  }
+
+}
@@ -1,5 +1,7 @@
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.IntPredicate;
 import FCTPutil.*; // currently contains java implementation of network simplex method
 
 /**
@@ -41,6 +43,10 @@ public class FCTPbas
   
   /** fcost[arc] is the fixed cost of arc i*n+j from supplier i to customer j */
   public double[] fcost;
+
+  /** Implicit cost model. If not null, the arrays tcost and fcost are null and the
+      costs are computed on demand by this object */
+  protected FCTPcost costs = null;
   
   /** number of nodes in the bipartite graph */ 
   public int nnodes;
@@ -56,7 +62,30 @@ public class FCTPbas
   
   /** arc_h[arc] is the "head", that means node m+j, of arc "arc=i*n+j" */
   private int[] arc_h;
+
+  /** don't-look bits of the local search: awake[node] is false if the non-basic arcs incident to
+      the node were not improving at the end of the last local search and neither the predecessor
+      of the node nor a basic arc incident to it changed since then */
+  private boolean[] awake;
+
+  /** predecessor labels of the basis tree the don't-look bits refer to (null if none) */
+  private int[] dlbTree;
+
+  /** cost data the don't-look bits refer to */
+  private double[] dlbFcost, dlbTcost;
+  private FCTPcost dlbCosts;
+
+  /** nodes on the cycle of the last basic exchange (only used with don't-look bits) */
+  private int[] cycNodes;
   
+  /** permutation of the arcs shuffled by drawArc: position pos holds arc permVal[pos] if 
+      permGen[pos] == permStamp and arc pos otherwise */
+  private int[] permVal;
+  private int[] permGen;
+
+  /** generation stamp of the current sample of drawArc */
+  private int permStamp = 0;
+
   /** Object that keeps the current solutions */
   //protected FCTPsol solution;
   public FCTPsol solution;
@@ -71,6 +100,12 @@ public class FCTPbas
       https://docs.oracle.com/javase/7/docs/api/java/util/Random.html */
   protected Random randgen = new Random();
 
+  /** transportation simplex used by LPheu (created on first use) */
+  private FCTPtsimplex lpSolver = null;
+
+  /** network simplex used by LPheu (created on first use) */
+  private mcNetflo netflo = null;
+
   /**
    * Get the percentage of fixed costs in current solution, used by RL agents
    * @return percentage of fixed costs in current solution
@@ -79,7 +114,7 @@ public class FCTPbas
     int count = 0;
     for(int i = 0; i < narcs; i++){
       if(solution.flow[i] > 0){
-        count += fcost[i];
+        count += getfcost(i);
       }
     }
     return count/solution.totalCost;
@@ -152,17 +187,49 @@ public class FCTPbas
       }
       return numbers;
     }
-    Random rng = new Random();
-    Set<Integer> generated = new LinkedHashSet<Integer>();
-    while (generated.size() < Math.min(size, narcs -(n+m-1)))
+    int num = Math.min(size, narcs -(n+m-1));
+    ArrayList<Integer> generated = new ArrayList<Integer>(num);
+    for (int t = 0; ( generated.size() < num ) && ( t < narcs ); t++)
     {
-      Integer next = rng.nextInt(narcs);
-      // As we're adding to a set, this will automatically do a containment check
+      int next = drawArc( t );
       if(solution.arc_stat[next] != BASIC) {
         generated.add(next);
       }
     }
-    return new ArrayList<Integer>(generated);
+    return generated;
+  }
+
+  /**
+   *  Step t of a partial Fisher-Yates shuffle of the arcs. The calls drawArc( 0 ), drawArc( 1 ), ..., 
+   *  drawArc( k-1 ) return k distinct arcs drawn uniformly at random (without replacement). Each
+   *  sample starts from the identity permutation, so that the arcs drawn only depend on randgen. 
+   *  The positions changed in the current sample are marked by a generation stamp, so that the 
+   *  permutation is reset in constant time and no memory is allocated.
+   *  
+   *  @param t number of arcs drawn before in the current sample (0 <= t < narcs)
+   *  @return the next randomly drawn arc
+   */
+  protected int drawArc( int t )
+  {
+    if ( permVal == null ) 
+    {
+      permVal = new int[narcs];
+      permGen = new int[narcs];
+    }
+    if ( t == 0 ) 
+    {
+      if ( ++permStamp == Integer.MAX_VALUE )
+      {
+        Arrays.fill( permGen, 0 );
+        permStamp = 1;
+      }
+    }
+    int r = t + randgen.nextInt( narcs-t );
+    int arc = ( permGen[r] == permStamp ) ? permVal[r] : r;
+    // Move the arc at position t to position r (position t is not used again in this sample)
+    permVal[r] = ( permGen[t] == permStamp ) ? permVal[t] : t;
+    permGen[r] = permStamp;
+    return( arc );
   }
 
   /**
@@ -242,8 +309,13 @@ public class FCTPbas
    */
   public FCTPbas( String fname ) throws Exception 
   {
-    try 
+    try
     {
+       if ( fname.endsWith( FCTPgen.BINSUFFIX ) )
+       {
+         readBinary( fname );
+         return;
+       }
        Scanner inFile = new Scanner ( new File ( fname ) );
        inFile.useLocale(Locale.US);
        m = inFile.nextInt(); 
@@ -257,7 +329,32 @@ public class FCTPbas
     catch ( Exception exc )
     {
       System.out.println("Error when reading data: "+exc.getMessage());
-    }  
+    }
+  }
+
+  /**
+   * Reads the data from a binary instance file as written by FCTPgen.writeBinary
+   *
+   *  @param fname full path to input file
+   */
+  private void readBinary( String fname ) throws IOException
+  {
+    DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( fname ), 1 << 16 ) );
+    try
+    {
+      if ( in.readInt() != FCTPgen.MAGIC ) throw new IOException( fname+" is not a binary FCTP file" );
+      m = in.readInt();
+      n = in.readInt();
+      allocMem( true );
+      for ( int i=0; i < m; i++ ) supply[i] = in.readInt();
+      for ( int j=0; j < n; j++ ) demand[j] = in.readInt();
+      for ( int arc=0; arc < narcs; arc++ ) tcost[arc] = in.readDouble();
+      for ( int arc=0; arc < narcs; arc++ ) fcost[arc] = in.readDouble();
+    }
+    finally
+    {
+      in.close();
+    }
   }
 
   /**
@@ -292,6 +389,44 @@ public class FCTPbas
     }  
   }
 
+  /**
+   * Constructor that takes an implicit cost model instead of cost arrays. No memory
+   * for m*n cost arrays is allocated; gettcost and getfcost delegate to "cst".
+   *
+   *  @param mm       number of suppliers
+   *  @param nn       number of customers
+   *  @param s        integer array of mm supply quantities
+   *  @param d        integer array of nn demand quantities
+   *  @param cst      cost model computing unit and fixed cost of each arc on demand
+   */
+  public FCTPbas( int mm, int nn, int[] s, int[] d, FCTPcost cst )
+  {
+    m = mm;
+    n = nn;
+    allocMem( false );
+    supply = s;
+    demand = d;
+    costs  = cst;
+  }
+
+  /**
+   * Replaces an implicit cost model by explicit cost arrays tcost and fcost. This is
+   * required by methods that modify the costs in place (e.g. guided local search).
+   * Nothing is done if the costs are already stored explicitly.
+   */
+  public void explicitCosts( )
+  {
+    if ( costs == null ) return;
+    tcost = new double[narcs];
+    fcost = new double[narcs];
+    for ( int i=0; i < m; i++ ) for ( int j=0; j < n; j++ )
+    {
+      tcost[i*n+j] = costs.gettcost( i, j );
+      fcost[i*n+j] = costs.getfcost( i, j );
+    }
+    costs = null;
+  }
+
   /**
    *  Returns the number/identifier of the tree containing node "node" 
    *  
@@ -487,12 +622,173 @@ public class FCTPbas
   
   }
 
+  /**
+   *  Recomputes the flows on the basic arcs of the current basis tree from the present
+   *  supplies and demands. This re-balances the flow along the tree paths after supplies
+   *  and demands have been changed. Nodes are processed in order of increasing subtree
+   *  size, so that each node comes before its predecessor in the tree.
+   *  
+   *  @return true if all basic flows are non-negative. In this case the flows and the
+   *          total cost of the solution are updated. Otherwise the solution is unchanged.
+   */
+  public boolean setTreeFlows( )
+  {
+    // Net supply of each node minus the flow on non-basic arcs
+    long[] bal = new long[nnodes];
+    for ( int i=0; i < m; i++ ) bal[i] = supply[i];
+    for ( int j=0; j < n; j++ ) bal[m+j] = -demand[j];
+    for ( int arc=0; arc < narcs; arc++ ) 
+      if ( ( solution.arc_stat[arc] != BASIC ) && ( solution.flow[arc] > 0 ) )
+      {
+        bal[arc_t[arc]] -= solution.flow[arc];
+        bal[arc_h[arc]] += solution.flow[arc];
+      }
+
+    // Bucket sort the nodes according to the size of their subtree
+    int[] first = new int[nnodes+2];
+    for ( int node=0; node < nnodes; node++ ) first[solution.tree_t[node]+1]++;
+    for ( int t=1; t <= nnodes+1; t++ ) first[t] += first[t-1];
+    int[] order = new int[nnodes];
+    for ( int node=0; node < nnodes; node++ ) order[first[solution.tree_t[node]]++] = node;
+
+    // Flow on the arc to the predecessor equals the net supply of the subtree
+    int[] arcs = new int[nnodes];
+    long[] flows = new long[nnodes];
+    int nb = 0;
+    for ( int k=0; k < nnodes; k++ )
+    {
+      int node = order[k];
+      int pred = solution.tree_p[node];
+      if ( pred < 0 ) continue; // root node
+      int arc;
+      long x;
+      if ( node < m ) 
+      {
+        arc = node*n + pred - m;
+        x = bal[node];
+      }
+      else
+      {
+        arc = pred*n + node - m;
+        x = -bal[node];
+      }
+      if ( ( x < 0 ) || ( x > getCap( arc ) ) ) return( false );
+      arcs[nb] = arc;
+      flows[nb++] = x;
+      bal[pred] += bal[node];
+    }
+    for ( int k=0; k < nb; k++ ) solution.flow[arcs[k]] = (int)flows[k];
+    return( setBasicSolution( ) );
+  }
+
+  /**
+   *  Turns the feasible flow stored in the array "flow" into a basic one. As long as the
+   *  arcs with positive flow contain a cycle, flow is shifted around the cycle in the 
+   *  direction that does not increase the transportation cost until the flow on one of 
+   *  the arcs drops to zero. This removes at least one arc and hence also does not
+   *  increase the fixed cost. The basis tree is not set up (see setBasicSolution).
+   *  Since shifting flow never makes an arc positive, only the arcs that carry flow 
+   *  initially are scanned, and those whose flow dropped to zero are removed from this list.
+   */
+  public void cancelCycles( )
+  {
+    int[] father = new int[nnodes];
+    int[] size = new int[nnodes];
+    int[] parc = new int[nnodes];
+    int[] mark = new int[nnodes];
+    int[] adjArc = new int[2*nnodes];
+    int[] adjNext = new int[2*nnodes];
+    int[] adjHead = new int[nnodes];
+    int[] cycle = new int[nnodes];
+    int[] posArc = new int[narcs];
+    int npos = 0;
+    for ( int arc=0; arc < narcs; arc++ ) if ( solution.flow[arc] > 0 ) posArc[npos++] = arc;
+    boolean found = true;
+    while ( found )
+    {
+      // Add the arcs with positive flow to a forest until one closes a cycle
+      found = false;
+      Arrays.fill( father, -1 );
+      Arrays.fill( size, 1 );
+      Arrays.fill( parc, -1 );
+      Arrays.fill( adjHead, -1 );
+      int nadj = 0;
+      int arc = -1;
+      int cnt = 0;
+      for ( int k=0; k < npos; k++ ) 
+      {
+        arc = posArc[k];
+        if ( solution.flow[arc] == 0 ) continue;
+        posArc[cnt++] = arc;
+        int itree = FindTree( arc_t[arc], father );
+        int jtree = FindTree( arc_h[arc], father );
+        if ( itree == jtree ) 
+        {
+          found = true;
+          for ( k++; k < npos; k++ ) if ( solution.flow[posArc[k]] > 0 ) posArc[cnt++] = posArc[k];
+          break;
+        }
+        MergeTrees( itree, jtree, size, father );
+        adjArc[nadj] = arc; adjNext[nadj] = adjHead[arc_t[arc]]; adjHead[arc_t[arc]] = nadj++;
+        adjArc[nadj] = arc; adjNext[nadj] = adjHead[arc_h[arc]]; adjHead[arc_h[arc]] = nadj++;
+      }
+      npos = cnt;
+      if ( !found ) break;
+
+      // Find the path from head to tail of the closing arc in the forest (depth first search)
+      Arrays.fill( mark, 0 );
+      int[] stack = size;
+      int nstack = 0;
+      int target = arc_t[arc];
+      stack[nstack++] = arc_h[arc];
+      mark[arc_h[arc]] = 1;
+      while ( ( nstack > 0 ) && ( mark[target] == 0 ) )
+      {
+        int node = stack[--nstack];
+        for ( int k=adjHead[node]; k >= 0; k=adjNext[k] )
+        {
+          int a = adjArc[k];
+          int other = ( arc_t[a] == node ) ? arc_h[a] : arc_t[a];
+          if ( mark[other] == 0 )
+          {
+            mark[other] = 1;
+            parc[other] = a;
+            stack[nstack++] = other;
+          }
+        }
+      }
+
+      // Cycle: closing arc (tail -> head) followed by the path from head back to tail. 
+      // Sign +1 means the arc is traversed in its direction (supplier -> customer).
+      int ncyc = 0;
+      cycle[ncyc++] = arc+1;
+      for ( int node=target; node != arc_h[arc]; )
+      {
+        int a = parc[node];
+        int prev = ( arc_t[a] == node ) ? arc_h[a] : arc_t[a];
+        cycle[ncyc++] = ( arc_h[a] == node ) ? a+1 : -(a+1);  // path is walked backwards
+        node = prev;
+      }
+      double dcost = 0.0;
+      for ( int k=0; k < ncyc; k++ ) dcost += ( cycle[k] > 0 ) ? gettcost( cycle[k]-1 ) : -gettcost( -cycle[k]-1 );
+      int dir = ( dcost <= 0.0 ) ? 1 : -1;
+      int delta = Integer.MAX_VALUE;
+      for ( int k=0; k < ncyc; k++ ) 
+        if ( cycle[k]*dir < 0 ) delta = Math.min( delta, solution.flow[Math.abs( cycle[k] )-1] );
+      for ( int k=0; k < ncyc; k++ ) solution.flow[Math.abs( cycle[k] )-1] += ( cycle[k]*dir > 0 ) ? delta : -delta;
+    }
+  }
+
   /**
    *  Returns the unit transport cost on arc "arc"
    *  
    *  @param arc number of the arc whose unit cost should be returned
    */
-  public double gettcost( int arc ) { return( tcost[arc] );}
+  public double gettcost( int arc ) 
+  { 
+    if ( costs == null ) return( tcost[arc] );
+    return( costs.gettcost( arc/n, arc%n ) );
+  }
 
   /**
    *  Returns the unit transport cost on arc from supplier i to customer j
@@ -500,14 +796,22 @@ public class FCTPbas
    *  @param i index of the supplier ( 0 <= i < m )
    *  @param j index of the customer ( 0 <= j < n )
    */
-  public double gettcost( int i, int j ) { return( tcost[i*n+j] );}
+  public double gettcost( int i, int j ) 
+  { 
+    if ( costs == null ) return( tcost[i*n+j] );
+    return( costs.gettcost( i, j ) );
+  }
 
   /**
    *  Returns the fixed cost on arc "arc"
    *  
    *  @param arc number of the arc whose unit cost should be returned
    */
-  public double getfcost( int arc ) { return( fcost[arc] );}
+  public double getfcost( int arc ) 
+  { 
+    if ( costs == null ) return( fcost[arc] );
+    return( costs.getfcost( arc/n, arc%n ) );
+  }
 
   /**
    *  Returns the fixed cost on arc from supplier i to customer j
@@ -515,7 +819,19 @@ public class FCTPbas
    *  @param i index of the supplier ( 0 <= i < m )
    *  @param j index of the customer ( 0 <= j < n )
    */
-  public double getfcost( int i, int j ) { return( fcost[i*n+j] );}
+  public double getfcost( int i, int j ) 
+  { 
+    if ( costs == null ) return( fcost[i*n+j] );
+    return( costs.getfcost( i, j ) );
+  }
+
+  /**
+   *  Returns true if arc capacities (other than the supplies and demands) are given
+   */
+  public boolean isCapacitated( )
+  {
+    return( cap != null );
+  }
 
   /**
    *  Returns the capacity on arc "arc"
@@ -575,7 +891,7 @@ public class FCTPbas
    */
   public boolean setBasicSolution( )
   {
-    solution.ComputeCost( fcost, tcost );
+    if ( costs == null ) solution.ComputeCost( fcost, tcost ); else solution.ComputeCost( costs );
     return ( setBasis( ) );
   }    
 
@@ -591,19 +907,140 @@ public class FCTPbas
     return( setBasicSolution() );
   }    
 
+  /**
+   *  Reads a solution from file (see FCTPsol.Write) and sets it up as the current
+   *  basic solution. The total cost is recomputed for the present data. The file is
+   *  read into a separate solution object, so that the current solution is left
+   *  unchanged if the file cannot be read or does not contain a feasible solution.
+   *  
+   *  @param  fname full path of the solution file
+   *  @return true if successful and false if the stored flows are not a feasible 
+   *          basic solution of this instance
+   */
+  public boolean loadSolution( String fname ) throws IOException
+  {
+    FCTPsol sol = new FCTPsol( m, n );
+    sol.Read( fname );
+    return( setStoredSolution( sol ) );
+  }    
+
+  /**
+   *  Checks that the flows in a solution object (as read from file or from a solution
+   *  store) satisfy supplies and demands and, if so, makes it the current solution and
+   *  sets up the corresponding basis tree. The current solution is left unchanged if
+   *  this fails.
+   *  
+   *  @param  sol the solution (only flows and arc status need to be set)
+   *  @return true if successful and false if the flows are not a feasible basic solution
+   */
+  public boolean setStoredSolution( FCTPsol sol )
+  {
+    int[] rest = new int[nnodes];
+    for ( int i=0; i < m; i++ ) rest[i] = supply[i];
+    for ( int j=0; j < n; j++ ) rest[m+j] = demand[j];
+    for ( int arc=0; arc < narcs; arc++ ) if ( sol.flow[arc] != 0 )
+    {
+      if ( sol.flow[arc] < 0 ) return( false );
+      rest[arc_t[arc]] -= sol.flow[arc];
+      rest[arc_h[arc]] -= sol.flow[arc];
+    }
+    for ( int node=0; node < nnodes; node++ ) if ( rest[node] != 0 ) return( false );
+    FCTPsol old = new FCTPsol( solution );
+    solution.Overwrite( sol );
+    if ( setBasicSolution( ) ) return( true );
+    solution.Overwrite( old );
+    return( false );
+  }    
+
+  /**
+   *  Returns a 64-bit fingerprint of the instance data (m, n, supplies, demands and costs).
+   *  Instances with identical data get the same fingerprint independent of the file they
+   *  have been read from. It is used as key of solutions kept in a FCTPstore.
+   */
+  public long fingerprint( )
+  {
+    long h = 0xCBF29CE484222325L;
+    h = hashStep( h, m );
+    h = hashStep( h, n );
+    for ( int i=0; i < m; i++ ) h = hashStep( h, supply[i] );
+    for ( int j=0; j < n; j++ ) h = hashStep( h, demand[j] );
+    for ( int arc=0; arc < narcs; arc++ ) 
+    {
+      h = hashStep( h, Double.doubleToLongBits( gettcost( arc ) ) );
+      h = hashStep( h, Double.doubleToLongBits( getfcost( arc ) ) );
+    }
+    // final avalanche step
+    h = ( h ^ ( h >>> 33 ) )*0xFF51AFD7ED558CCDL;
+    h = ( h ^ ( h >>> 33 ) )*0xC4CEB9FE1A85EC53L;
+    return( h ^ ( h >>> 33 ) );
+  }
+
+  /** One step of the (word-wise) FNV-1a hash used by method fingerprint */
+  private static long hashStep( long h, long value )
+  {
+    return( ( h ^ value )*0x100000001B3L );
+  }
+
+  /**
+   *  Writes the current solution to file (see FCTPsol.Write)
+   *  
+   *  @param fname full path of the solution file
+   */
+  public void saveSolution( String fname ) throws IOException
+  {
+    solution.Write( fname );
+  }    
+
   /**
    *  Solves the LP relaxation and uses the resulting solution as
-   *  heuristic solution to the FCTP (known as Balinki's method)
+   *  heuristic solution to the FCTP (known as Balinki's method).
+   *  The LP is solved by the transportation simplex (FCTPtsimplex) if 
+   *  FCTPparam.lp_solver = LP_TSIMPLEX, which directly returns the basis, 
+   *  and otherwise (or if the transportation simplex fails) by mcNetflo.
    *  
    *  @return true if successful and false if error occurred
    */
   public boolean LPheu ( )
   {         
-    // Create mcNetflo object;
-    mcNetflo LPrelax = new mcNetflo( n, m, supply, demand, tcost, fcost, solution.flow );
+    return( LPheu( null ) );
+  }    
+
+  /**
+   *  Same as LPheu(), but the transportation simplex starts from the basis of the
+   *  basic solution "start", e.g. the LP solution obtained before some costs were 
+   *  changed. The re-optimisation then usually takes only a few pivots. Since mcNetflo
+   *  cannot use a start basis, the transportation simplex is used whenever start is 
+   *  not null, whatever FCTPparam.lp_solver is (mcNetflo only if it fails).
+   *  
+   *  @param start basic solution whose basis is used as initial basis (or null)
+   *  @return true if successful and false if error occurred
+   */
+  public boolean LPheu ( FCTPsol start )
+  {         
+    if ( ( start != null ) || ( FCTPparam.lp_solver == FCTPparam.LP_TSIMPLEX ) )
+    {
+      if ( lpSolver == null ) lpSolver = new FCTPtsimplex( this );
+      if ( lpSolver.solve( start ) ) return( true );
+    }
+
+    // Solve by mcNetflo (an implicit cost model is expanded for the time of the call)
+    double[] tc = tcost;
+    double[] fc = fcost;
+    if ( costs != null )
+    {
+      tc = new double[narcs];
+      fc = new double[narcs];
+      for ( int arc=0; arc < narcs; arc++ )
+      {
+        tc[arc] = gettcost( arc );
+        fc[arc] = getfcost( arc );
+      }
+    }
+    if ( netflo == null ) netflo = new mcNetflo( );
+    int status = netflo.solve( n, m, supply, demand, tc, fc, solution.flow );
 
-    //System.out.println(LPrelax.GetObjVal());
-    if ( LPrelax.GetStatus( ) == 0 )
+    //System.out.println(netflo.GetObjVal());
+    if ( status == 0 )
       return( setBasicSolution( ) );
     else
       return ( false );
@@ -612,9 +1049,10 @@ public class FCTPbas
 //-------------------------------------------------------------------------------------
 
   /**
-   *  class used for storing data belonging to a move=basic exchange
+   *  class used for storing data belonging to a move=basic exchange (package-private, so that 
+   *  FCTPspecLS can keep one object per thread as work space of evalCostSav)
    */
-  private class moveData
+  class moveData
   {
     /** index of the non-basic arc possibly to be introduced in the basis */
     int in_arc; 
@@ -651,6 +1089,21 @@ public class FCTPbas
      *  Constructor of object 
      */
     moveData ( int in_arc )
+    {
+      init( in_arc );
+    }
+
+    /** 
+     *  Constructor of an object that is initialised later by init( in_arc )
+     */
+    moveData ( )
+    {
+    }
+
+    /**
+     *  (Re-)initialises the object for investigating the introduction of arc in_arc into the basis
+     */
+    void init ( int in_arc )
     {
       this.in_arc = in_arc;
       this.inarc_stat = solution.arc_stat[in_arc];
@@ -670,6 +1123,14 @@ public class FCTPbas
     }    
     
     moveData ( moveData clone )
+    {
+      copy( clone );
+    }
+
+    /**
+     *  Overwrites the data of this object with the data of another one
+     */
+    void copy ( moveData clone )
     {
       this.in_arc = clone.in_arc;
       this.inarc_stat = clone.inarc_stat;
@@ -691,6 +1152,9 @@ public class FCTPbas
   private moveData trialMove; 
   private moveData storedMove;
 
+  /** work space of the serial neighbourhood scan of bestMove */
+  private moveData scanMove;
+
   /**
    *  Computes cost saving that results if a non-basic arc "arc" is made a basic arc
    *  
@@ -700,7 +1164,8 @@ public class FCTPbas
   public double getCostSav( int arc )
   {
     if ( solution.arc_stat[arc] == BASIC ) return ( 0.0 );    
-    compCostSav( arc );
+    if ( trialMove == null ) trialMove = new moveData( arc ); else trialMove.init( arc );
+    compCostSav( arc, trialMove );
     return( trialMove.saving );
   }    
       
@@ -716,6 +1181,34 @@ public class FCTPbas
     return ( 0.0 );
   }
 
+  /**
+   *  Computes the cost saving of the basic exchange introducing the arc "arc" like getCostSav(arc), 
+   *  but does not change the data of the most recently investigated move. The method may therefore be 
+   *  called by several threads at the same time, as long as the current solution is not changed.
+   */
+  public double evalCostSav( int arc )
+  {
+    return( evalCostSav( arc, new moveData( ) ) );
+  }
+
+  /**
+   *  Same as evalCostSav( arc ), but uses the object mv as work space instead of allocating one.
+   *  Threads that evaluate the arcs concurrently need separate work spaces (see newMoveData).
+   */
+  double evalCostSav( int arc, moveData mv )
+  {
+    if ( solution.arc_stat[arc] == BASIC ) return ( 0.0 );    
+    mv.init( arc );
+    compCostSav( arc, mv );
+    return( mv.saving );
+  }
+
+  /** Returns a new work space for evalCostSav */
+  moveData newMoveData( )
+  {
+    return( new moveData( ) );
+  }
+
   public void executeMove(int arc){
     double cost = getCostSav(arc);
     RememberMove();
@@ -727,7 +1220,7 @@ public class FCTPbas
    */
   public void RememberMove( )
   {
-    storedMove = new moveData( trialMove );  
+    if ( storedMove == null ) storedMove = new moveData( trialMove ); else storedMove.copy( trialMove );
   }    
   
   /**
@@ -747,16 +1240,143 @@ public class FCTPbas
     return ( trialMove.out_arc );    
   }    
 
+  /** Rates the basic exchanges evaluated by bestMove */
+  public interface MoveRater
+  {
+    /**
+     *  Returns the rating of the basic exchange that introduces arc in_arc into the basis
+     *  
+     *  @param in_arc  the non-basic arc entering the basis
+     *  @param saving  cost saving of the exchange
+     *  @param out_arc the arc leaving the basis (negative if in_arc just switches its status)
+     */
+    double rate( int in_arc, double saving, int out_arc );
+  }
+
+  /** Pool of worker threads shared by all parallel neighbourhood scans */
+  private static ForkJoinPool scanPool = null;
+
+  /** 
+   *  Returns the pool of worker threads for the parallel neighbourhood scans. If the number of 
+   *  threads has changed, the previous pool is shut down (tasks already submitted to it are still
+   *  completed) and a new one is created. The number of threads should therefore not be changed 
+   *  while parallel scans are running.
+   */
+  static synchronized ForkJoinPool getScanPool( )
+  {
+    if ( ( scanPool == null ) || ( scanPool.getParallelism() != FCTPparam.numThreads() ) ) 
+    {
+      if ( scanPool != null ) scanPool.shutdown( );
+      scanPool = new ForkJoinPool( FCTPparam.numThreads() );
+    }
+    return( scanPool );
+  }
+
+  /**
+   *  Returns true if neighbourhood scans by bestMove are done in parallel. This is the case if more 
+   *  than one thread is available, the instance has at least FCTPparam.par_scan_arcs arcs and the 
+   *  costs are given by arrays (a cost model with a cache is not thread-safe).
+   */
+  public boolean parallelScan( )
+  {
+    return( ( narcs >= FCTPparam.par_scan_arcs ) && ( costs == null ) && ( FCTPparam.numThreads() > 1 ) );
+  }
+
+  /**
+   *  Evaluates the basic exchanges introducing the non-basic arcs and returns the arc of the exchange 
+   *  with the highest rating. Ties are broken in favour of the arc with smallest index. The current 
+   *  solution and the data of the last investigated move (see getCostSav) are not changed. If 
+   *  parallelScan() is true, the arcs are split into chunks that are evaluated concurrently, 
+   *  otherwise they are scanned one after the other; the result is the same in both cases.
+   *  
+   *  @param consider if not null, only non-basic arcs for which consider.test( arc ) is true are evaluated
+   *  @param rater    rating of the exchanges. It has to be thread-safe if parallelScan() is true.
+   *  @param minRate  only exchanges with a rating larger than minRate are considered
+   *  
+   *  @return the entering arc of the best exchange or -1 if no exchange has a rating above minRate
+   */
+  public int bestMove( IntPredicate consider, MoveRater rater, double minRate )
+  {
+    if ( ! parallelScan( ) ) 
+    {
+      if ( scanMove == null ) scanMove = new moveData( );
+      return( (int)scanMoves( consider, rater, minRate, 0, narcs, scanMove )[1] );
+    }
+    int nchunks = 4*FCTPparam.numThreads();
+    List<Callable<double[]>> tasks = new ArrayList<Callable<double[]>>( nchunks );
+    for ( int c=0; c < nchunks; c++ ) 
+    {
+      final int first = (int)( (long)c*narcs/nchunks );
+      final int last = (int)( (long)(c+1)*narcs/nchunks );
+      tasks.add( () -> scanMoves( consider, rater, minRate, first, last, new moveData( ) ) );
+    }
+    double bestRate = minRate;
+    int bestArc = -1;
+    try
+    {
+      for ( Future<double[]> f : getScanPool().invokeAll( tasks ) )
+      {
+        double[] res = f.get( );
+        if ( res[0] > bestRate ) 
+        {
+          bestRate = res[0];
+          bestArc = (int)res[1];
+        }
+      }
+    } 
+    catch ( InterruptedException exc )
+    {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException( exc );
+    }
+    catch ( ExecutionException exc )
+    {
+      Throwable cause = exc.getCause();
+      if ( cause instanceof RuntimeException ) throw (RuntimeException)cause;
+      if ( cause instanceof Error ) throw (Error)cause;
+      throw new RuntimeException( cause );
+    }
+    return( bestArc );
+  }
+
+  /**
+   *  Evaluates the basic exchanges introducing the non-basic arcs first, ..., last-1 (see bestMove) 
+   *  
+   *  @param  mv work space for the data of the exchanges (one per thread)
+   *  @return array of the highest rating (at least minRate) and the entering arc of the corresponding
+   *          exchange (-1 if no exchange has a rating larger than minRate)
+   */
+  private double[] scanMoves( IntPredicate consider, MoveRater rater, double minRate, int first, int last,
+                              moveData mv )
+  {
+    double bestRate = minRate;
+    int bestArc = -1;
+    for ( int arc=first; arc < last; arc++ ) 
+    {
+      if ( ( solution.arc_stat[arc] == BASIC ) || ( ( consider != null ) && ! consider.test( arc ) ) ) continue;
+      mv.init( arc );
+      compCostSav( arc, mv );
+      double rate = rater.rate( arc, mv.saving, mv.out_arc );
+      if ( rate > bestRate ) 
+      {
+        bestRate = rate;
+        bestArc = arc;
+      }
+    }
+    return( new double[] { bestRate, bestArc } );
+  }
+
   /**
    *  Checks if the arc (pred_i, i ) becomes the new candidate of the bottleneck arc on the cycle 
    *  
    *  @param sign    positive if the flow on the non-basic arc is at zero and negative if at upper bound
    *  @param pred_i  first end node of the tentative "bottleneck" arc
    *  @param i       second end node of the tentative "bottleneck" arc
+   *  @param mv      data of the basic exchange under investigation
    *  
    *  @return        true if the arc becomes the new current bottleneck arc
    */
-  private boolean Chkarc( int sign, int pred_i, int i )
+  private boolean Chkarc( int sign, int pred_i, int i, moveData mv )
   {
     int sn, cn;
     boolean to_inc;
@@ -781,20 +1401,20 @@ public class FCTPbas
     if ( to_inc ) 
     {
       delta = (cap==null) ? Integer.MAX_VALUE : getCap(arc) - solution.flow[arc];
-      bneck = ( delta < trialMove.flow_chg );
+      bneck = ( delta < mv.flow_chg );
     }  
     else 
     {
       delta = solution.flow[arc];
-      bneck = ( (delta < trialMove.flow_chg) || 
-              ( (delta == trialMove.flow_chg) && (fcost[arc] > trialMove.FCout) ) );
+      bneck = ( (delta < mv.flow_chg) || 
+              ( (delta == mv.flow_chg) && (getfcost(arc) > mv.FCout) ) );
     }            
     if ( bneck ) 
     {                        
-      trialMove.flow_chg = delta;
-      trialMove.out_arc  = arc;
-      trialMove.to_upper = to_inc;
-      if ( ! (to_inc) ) trialMove.FCout = fcost[arc];
+      mv.flow_chg = delta;
+      mv.out_arc  = arc;
+      mv.to_upper = to_inc;
+      if ( ! (to_inc) ) mv.FCout = getfcost(arc);
     }
 
     return ( bneck );
@@ -829,13 +1449,13 @@ public class FCTPbas
       arc = sn*n + cn;
       nflow = solution.flow[arc] - delta;
     }
-    double sav = ( solution.flow[arc] - nflow )*tcost[arc];
+    double sav = ( solution.flow[arc] - nflow )*gettcost(arc);
     if ( solution.flow[arc] > 0 ) 
     {
-      if ( nflow == 0 ) sav += fcost[arc];  
+      if ( nflow == 0 ) sav += getfcost(arc);  
     } 
     else if ( nflow > 0 ) 
-      sav -= fcost[arc];
+      sav -= getfcost(arc);
     
     return( sav );
 
@@ -846,8 +1466,9 @@ public class FCTPbas
    *  introduced into the basis
    *  
    *  @params in_arc number of the non-basic arc to be investigated
+   *  @param  mv     data of the basic exchange, initialised by the constructor moveData( in_arc )
    */
-  private void compCostSav( int in_arc )
+  private void compCostSav( int in_arc, moveData mv )
   {
     int i = arc_t[in_arc]; // the arc's supply node
     int j = arc_h[in_arc]; // the arc's demand node (index in m, m+1,..,m+n)
@@ -855,16 +1476,15 @@ public class FCTPbas
     // From the end nodes of the non-basic arc "in_arc" move towards the root
     // until the common node (the apex) of these two pathes is found 
 
-    trialMove = new moveData( in_arc );
     while ( i != j ) 
     {
-      int sign = trialMove.sign;
+      int sign = mv.sign;
       if ( solution.tree_t[i] <= solution.tree_t[j] ) 
       {
         do 
         { 
           int pred_i = solution.tree_p[i];
-          if ( Chkarc( sign, pred_i, i ) ) trialMove.i_path = true;
+          if ( Chkarc( sign, pred_i, i, mv ) ) mv.i_path = true;
           i = pred_i;	
         } while ( ( solution.tree_t[i] ) < solution.tree_t[j] );
       }
@@ -873,48 +1493,132 @@ public class FCTPbas
         do 
         {
           int pred_j = solution.tree_p[j];
-          if ( Chkarc( -sign, pred_j, j ) ) trialMove.i_path = false;
+          if ( Chkarc( -sign, pred_j, j, mv ) ) mv.i_path = false;
           j = pred_j;	
         } while ( solution.tree_t[i] > solution.tree_t[j] );
       }
     } 
-    trialMove.apex = i;
+    mv.apex = i;
     
     // Compute the cost change by going from the apex of the cycle down to
     // the end nodes of the non-basic arc "in_arc" and adjusting flows 
-    if ( trialMove.flow_chg > 0 )
+    if ( mv.flow_chg > 0 )
     {
-      if ( trialMove.sign < 0 ) 
+      if ( mv.sign < 0 ) 
       {
-        trialMove.saving = tcost[in_arc]*(trialMove.flow_chg);
-        if ( trialMove.flow_chg == solution.flow[in_arc] ) trialMove.saving += fcost[in_arc];
+        mv.saving = gettcost(in_arc)*(mv.flow_chg);
+        if ( mv.flow_chg == solution.flow[in_arc] ) mv.saving += getfcost(in_arc);
       }
       else {
-        trialMove.saving = -fcost[in_arc] - (trialMove.flow_chg)*tcost[in_arc];
+        mv.saving = -getfcost(in_arc) - (mv.flow_chg)*gettcost(in_arc);
       }
-      int delta = trialMove.sign * trialMove.flow_chg;
+      int delta = mv.sign * mv.flow_chg;
       i = arc_t[in_arc];
-      while ( i != trialMove.apex ) 
+      while ( i != mv.apex ) 
       {
         int pred_i = solution.tree_p[i];
-        trialMove.saving += SaveOnArc( pred_i, i, delta );
+        mv.saving += SaveOnArc( pred_i, i, delta );
         i = pred_i;
       }
       j = arc_h[in_arc];
-      while ( j != trialMove.apex ) 
+      while ( j != mv.apex ) 
       {
         int pred_j = solution.tree_p[j];
-        trialMove.saving += SaveOnArc( pred_j, j, -delta );
+        mv.saving += SaveOnArc( pred_j, j, -delta );
         j = pred_j;
       }
     }
     
   }    
 
+  /**
+   *  Prepares the don't-look bits for a local search on the current solution. If they refer to
+   *  the current basis tree and cost data, they are kept. Otherwise all nodes are made awake.
+   *  Don't-look bits are not used if arcs are capacitated or FCTPparam.dont_look = 0.
+   *  
+   *  @return true if some nodes are asleep. A local search that skips the arcs that are not 
+   *          awake then has to check all arcs once before it stops, since a basic exchange 
+   *          also changes the savings of arcs whose end nodes stay asleep.
+   */
+  protected boolean wakeUp( )
+  {
+    if ( awake == null ) awake = new boolean[nnodes];
+    boolean valid = ( dlbTree != null ) && ( cap == null ) && ( FCTPparam.dont_look > 0 ) 
+                    && ( dlbFcost == fcost ) && ( dlbTcost == tcost ) && ( dlbCosts == costs )
+                    && Arrays.equals( dlbTree, solution.tree_p );
+    if ( ! valid ) Arrays.fill( awake, true );
+    return( valid );
+  }
+
+  /**
+   *  Returns true if the non-basic arc "arc" has to be examined by a local search, that is if 
+   *  one of its end nodes is awake (see wakeUp)
+   */
+  protected boolean isAwake( int arc )
+  {
+    return( awake[arc_t[arc]] || awake[arc_h[arc]] );
+  }
+
+  /**
+   *  Lets all nodes fall asleep. To be called when a local search terminated in a local optimum 
+   *  of the current solution.
+   */
+  protected void sleepAll( )
+  {
+    if ( FCTPparam.dont_look <= 0 ) 
+    {
+      dlbTree = null;
+      return;
+    }
+    Arrays.fill( awake, false );
+    if ( dlbTree == null ) dlbTree = new int[nnodes];
+    System.arraycopy( solution.tree_p, 0, dlbTree, 0, nnodes );
+    dlbFcost = fcost;
+    dlbTcost = tcost;
+    dlbCosts = costs;
+  }
+
+  /**
+   *  Invalidates the don't-look bits. Needs to be called if cost, supply or demand data is 
+   *  changed in place (see FCTPheur.changeData and FCTPls.GLS).
+   */
+  public void wakeAll( )
+  {
+    dlbTree = null;
+  }
+
   /**
    * Implements the move (that is basic exchange) stored before by a call to method RememberMove().
    */
   public void DoMove( ) 
+  {   
+    if ( dlbTree != null ) 
+    {
+      if ( cycNodes == null ) cycNodes = new int[nnodes];
+      int num = 0;
+      for ( int i=arc_t[storedMove.in_arc]; i != storedMove.apex; i = solution.tree_p[i] ) cycNodes[num++] = i;
+      for ( int j=arc_h[storedMove.in_arc]; j != storedMove.apex; j = solution.tree_p[j] ) cycNodes[num++] = j;
+      cycNodes[num++] = storedMove.apex;
+      exchange( );
+      // Wake the nodes whose predecessor changed and the end nodes of the exchanged arcs
+      for ( int k=0; k < num; k++ )
+      {
+        int node = cycNodes[k];
+        if ( dlbTree[node] != solution.tree_p[node] ) awake[node] = true;
+        dlbTree[node] = solution.tree_p[node];
+      }
+      awake[arc_t[storedMove.in_arc]] = awake[arc_h[storedMove.in_arc]] = true;
+      if ( storedMove.out_arc >= 0 ) awake[arc_t[storedMove.out_arc]] = awake[arc_h[storedMove.out_arc]] = true;
+    }
+    else
+      exchange( );
+  }
+
+  /**
+   * Performs the basic exchange stored by RememberMove(): updates arc status, flows, predecessor
+   * and subtree labels of the current solution
+   */
+  private void exchange( ) 
   {   
     if ( trialMove.out_arc < 0 ) 
     {
@@ -0,0 +1,140 @@
+/**
+ * Candidate arcs for a granular neighbourhood of the local search methods. For each supplier
+ * and each customer the k arcs with the smallest reduced cost with respect to the basis of
+ * a given solution are candidates, where the reduced costs are computed from the linearised
+ * arc costs (unit cost plus fixed cost divided by arc capacity). Without a solution, the
+ * arcs are ranked by their linearised cost. The basic arcs of the solution are candidates
+ * as well.
+ *
+ * Until the next rebuild further arcs can be added, e.g. arcs found to be improving by a
+ * scan of the full neighbourhood. Arcs of elite solutions can be registered by addElite;
+ * they stay candidates also after a rebuild.
+ *
+ * @version 19/10/2026
+ */
+public class FCTPcandList
+{
+  /** instance the candidate arcs belong to */
+  private FCTPbas inst;
+
+  /** number of candidates per node */
+  public final int k;
+
+  /** isCand[arc] is true if the arc is a candidate */
+  private boolean[] isCand;
+
+  /** elite[arc] is true if the arc is used by an elite solution */
+  private boolean[] elite;
+
+  /** number of candidate arcs */
+  private int num;
+
+  /**
+   * Constructor
+   *
+   * @param inst the FCTP instance
+   * @param k    number of candidate arcs per supplier and per customer
+   * @param sol  basic solution whose basis is used to compute reduced costs (see rebuild)
+   */
+  public FCTPcandList( FCTPbas inst, int k, FCTPsol sol )
+  {
+    this.inst = inst;
+    this.k = Math.max( 1, k );
+    isCand = new boolean[inst.narcs];
+    elite = new boolean[inst.narcs];
+    rebuild( sol );
+  }
+
+  /** Returns true if the arc is a candidate arc */
+  public boolean contains( int arc )
+  {
+    return( isCand[arc] );
+  }
+
+  /** Returns the number of candidate arcs */
+  public int size( )
+  {
+    return( num );
+  }
+
+  /** Adds an arc to the candidates (until the next rebuild) */
+  public void add( int arc )
+  {
+    if ( ! isCand[arc] ) num++;
+    isCand[arc] = true;
+  }
+
+  /** Adds the arcs with positive flow in the solution sol to the candidates permanently */
+  public void addElite( FCTPsol sol )
+  {
+    for ( int arc=0; arc < inst.narcs; arc++ ) if ( sol.flow[arc] > 0 )
+    {
+      elite[arc] = true;
+      add( arc );
+    }
+  }
+
+  /**
+   * Determines the candidate arcs anew.
+   *
+   * @param sol basic solution whose basis is used to compute reduced costs. If null, the arcs
+   *            are ranked by their linearised cost.
+   */
+  public void rebuild( FCTPsol sol )
+  {
+    int m = inst.m;
+    int n = inst.n;
+    double[] pot = ( sol == null ) ? new double[m+n] : potentials( sol );
+    System.arraycopy( elite, 0, isCand, 0, inst.narcs );
+    int kk = Math.min( k, Math.max( m, n ) );
+    int[] best = new int[kk];
+    double[] bval = new double[kk];
+    for ( int i=0; i < m; i++ )
+    {
+      int cnt = 0;
+      for ( int j=0; j < n; j++ )
+        cnt = FCTPgranular.Insert( i*n+j, FCTPgranular.linCost( inst, i*n+j ) - pot[i] - pot[m+j], best, bval, cnt );
+      for ( int l=0; l < cnt; l++ ) isCand[best[l]] = true;
+    }
+    for ( int j=0; j < n; j++ )
+    {
+      int cnt = 0;
+      for ( int i=0; i < m; i++ )
+        cnt = FCTPgranular.Insert( i*n+j, FCTPgranular.linCost( inst, i*n+j ) - pot[i] - pot[m+j], best, bval, cnt );
+      for ( int l=0; l < cnt; l++ ) isCand[best[l]] = true;
+    }
+    if ( sol != null )
+      for ( int arc=0; arc < inst.narcs; arc++ ) if ( sol.arc_stat[arc] == inst.BASIC ) isCand[arc] = true;
+    num = 0;
+    for ( int arc=0; arc < inst.narcs; arc++ ) if ( isCand[arc] ) num++;
+  }
+
+  /**
+   * Computes node potentials u_i (suppliers) and v_j (customers m+j) such that
+   * u_i + v_j equals the linearised cost of each basic arc (i,j) of the solution
+   */
+  private double[] potentials( FCTPsol sol )
+  {
+    int m = inst.m;
+    int n = inst.n;
+    int nnodes = m+n;
+    // Bucket sort nodes by decreasing size of their subtree, so that each node comes after its predecessor
+    int[] first = new int[nnodes+2];
+    for ( int node=0; node < nnodes; node++ ) first[nnodes-sol.tree_t[node]+1]++;
+    for ( int t=1; t <= nnodes+1; t++ ) first[t] += first[t-1];
+    int[] order = new int[nnodes];
+    for ( int node=0; node < nnodes; node++ ) order[first[nnodes-sol.tree_t[node]]++] = node;
+    double[] pot = new double[nnodes];
+    for ( int node : order )
+    {
+      int pred = sol.tree_p[node];
+      if ( pred < 0 ) continue; // root node
+      if ( node < m )
+        pot[node] = FCTPgranular.linCost( inst, node*n + pred - m ) - pot[pred];
+      else
+        pot[node] = FCTPgranular.linCost( inst, pred*n + node - m ) - pot[pred];
+    }
+    return( pot );
+  }
+
+}
@@ -0,0 +1,157 @@
+/**
+ * Consistency checks of the heuristics that can be run on given instance files:
+ * <pre>
+ *     java FCTPcheck Glover/N3004.FCTP Glover/N104.FCTP
+ * </pre>
+ * Each check prints PASS or FAIL, and the program exits with status 1 if a check fails.
+ * The parameters are read from FCTPheur.ini in the working directory.
+ *
+ * @version 19/10/2026
+ */
+public class FCTPcheck
+{
+
+  /**
+   * Checks that first accept local search reaches a local optimum after the data have been
+   * changed in place by FCTPheur.changeData, even if the basis tree stays the same, so that
+   * the don't-look bits of the previous local search must not be used. Also checks that the
+   * greedy evaluations of the arcs (PEheur.gvals1..3) are those of the changed costs.
+   *
+   * @param fname name of the instance file
+   * @return true if the check passed
+   */
+  public static boolean checkChangeData( String fname ) throws Exception
+  {
+    FCTPheur heu = new FCTPheur( fname );
+    FCTPparam.screen_on = false;
+    heu.LPheu( );
+    heu.LocalSearch( );
+    heu.changeData( null, null, null, null, null );
+    heu.LocalSearch( );
+
+    // Cut the costs of all non-basic arcs by 90 percent
+    int num = 0;
+    for ( int arc=0; arc < heu.narcs; arc++ ) if ( heu.solution.arc_stat[arc] != heu.BASIC ) num++;
+    int[] arcs = new int[num];
+    double[] dTcost = new double[num];
+    double[] dFcost = new double[num];
+    num = 0;
+    for ( int arc=0; arc < heu.narcs; arc++ ) if ( heu.solution.arc_stat[arc] != heu.BASIC )
+    {
+      arcs[num] = arc;
+      dTcost[num] = -0.9*heu.gettcost( arc );
+      dFcost[num++] = -0.9*heu.getfcost( arc );
+    }
+    heu.changeData( null, null, arcs, dTcost, dFcost );
+    heu.LS_first_acc( );
+
+    double bestSav = 0.0;
+    for ( int arc=0; arc < heu.narcs; arc++ ) bestSav = Math.max( bestSav, heu.getCostSav( arc ) );
+    boolean fresh = java.util.Arrays.equals( heu.gvals1, heu.get_greedy_values( ) )
+                    && java.util.Arrays.equals( heu.gvals2, heu.get_greedy_values_2( 5 ) )
+                    && java.util.Arrays.equals( heu.gvals3, heu.get_greedy_values_3( 5 ) );
+    boolean ok = ( bestSav <= FCTPparam.tolval ) && fresh;
+    System.out.format( "%s changeData/LS_first_acc on %s: %d moves, largest remaining saving %.1f, "
+                       + "greedy evaluations %s%n", ok ? "PASS" : "FAIL", fname, heu.getLSiter( ), bestSav,
+                       fresh ? "updated" : "stale" );
+    return( ok );
+  }
+
+  /** Returns the largest cost saving of a basic exchange applicable to the current solution */
+  private static double maxSaving( FCTPbas heu )
+  {
+    double bestSav = 0.0;
+    for ( int arc=0; arc < heu.narcs; arc++ ) 
+      if ( heu.solution.arc_stat[arc] != heu.BASIC ) bestSav = Math.max( bestSav, heu.getCostSav( arc ) );
+    return( bestSav );
+  }
+
+  /**
+   * Checks that first accept local search with don't-look bits, which after a kick first only
+   * examines the arcs incident to nodes touched by the kick, still returns a local optimum. Local optima are kicked by
+   * several random basic exchanges and improved again a number of times.
+   *
+   * @param fname name of the instance file
+   * @param kicks number of kicks
+   * @return true if the check passed
+   */
+  public static boolean checkKickLS( String fname, int kicks ) throws Exception
+  {
+    FCTPheur heu = new FCTPheur( fname );
+    FCTPparam.screen_on = false;
+    FCTPparam.setParam( FCTPparam.DONTLOOK, 1 );
+    heu.randgen.setSeed( 1 );
+    heu.LPheu( );
+    heu.LS_first_acc( );
+    int fails = 0;
+    double worst = maxSaving( heu );
+    if ( worst > FCTPparam.tolval ) fails++;
+    for ( int k=0; k < kicks; k++ )
+    {
+      heu.Kicksolution( 5 );
+      heu.LS_first_acc( );
+      double sav = maxSaving( heu );
+      if ( sav > FCTPparam.tolval ) fails++;
+      worst = Math.max( worst, sav );
+    }
+    FCTPparam.setParam( FCTPparam.DONTLOOK, 0 );
+    boolean ok = ( fails == 0 );
+    System.out.format( "%s Kicksolution/LS_first_acc on %s: %d of %d searches not in a local optimum, "
+                       + "largest remaining saving %.1f%n", ok ? "PASS" : "FAIL", fname, fails, kicks+1, worst );
+    return( ok );
+  }
+
+  /**
+   * Checks that PIRNLS started from a warm start (see FCTPheur.warmStart) never returns a worse
+   * solution. The warm start is a solution improved by IRNLS that is written to a temporary
+   * solution file and read by a new heuristic object.
+   *
+   * @param fname name of the instance file
+   * @return true if the check passed
+   */
+  public static boolean checkWarmStartPIRNLS( String fname ) throws Exception
+  {
+    FCTPheur heu = new FCTPheur( fname );
+    FCTPparam.screen_on = false;
+    heu.randgen.setSeed( 1 );
+    heu.LPheu( );
+    heu.IRNLS( 200 );
+    java.io.File tmp = java.io.File.createTempFile( "FCTPcheck", ".sol" );
+    String oldFile = FCTPparam.solFile;
+    boolean ok;
+    double warm, result;
+    try
+    {
+      heu.saveSolution( tmp.getPath( ) );
+      FCTPparam.solFile = tmp.getPath( );
+      heu = new FCTPheur( fname );
+      heu.randgen.setSeed( 2 );
+      ok = heu.warmStart( );
+      warm = heu.solution.totalCost;
+      heu.PIRNLS( new int[] { 4, 2 }, new int[] { 20, 20 }, false );
+      result = heu.solution.totalCost;
+      ok = ok && ( result <= warm + FCTPparam.tolval );
+    }
+    finally
+    {
+      FCTPparam.solFile = oldFile;
+      tmp.delete( );
+    }
+    System.out.format( "%s warm start/PIRNLS on %s: warm start %.1f, result %.1f%n",
+                       ok ? "PASS" : "FAIL", fname, warm, result );
+    return( ok );
+  }
+
+  /**
+   * Main method: runs the checks on the instance files given as arguments
+   */
+  public static void main( String[] args ) throws Exception
+  {
+    boolean ok = true;
+    for ( String fname : args ) ok &= checkChangeData( fname );
+    for ( String fname : args ) ok &= checkKickLS( fname, 30 );
+    for ( String fname : args ) ok &= checkWarmStartPIRNLS( fname );
+    if ( ! ok ) System.exit( 1 );
+  }
+
+}
@@ -0,0 +1,26 @@
+/**
+ * Interface of an implicit cost model for the FCTP. Instead of storing the unit
+ * transportation cost and the fixed cost of all m*n arcs, an object implementing
+ * this interface computes them on demand (e.g. from node coordinates). Pass such an
+ * object to the constructor FCTPbas( m, n, s, d, costs ) to use it.
+ *
+ * @version 19/10/2026
+ */
+public interface FCTPcost
+{
+  /**
+   *  Returns the unit transport cost on the arc from supplier i to customer j
+   *
+   *  @param i index of the supplier ( 0 <= i < m )
+   *  @param j index of the customer ( 0 <= j < n )
+   */
+  double gettcost( int i, int j );
+
+  /**
+   *  Returns the fixed cost on the arc from supplier i to customer j
+   *
+   *  @param i index of the supplier ( 0 <= i < m )
+   *  @param j index of the customer ( 0 <= j < n )
+   */
+  double getfcost( int i, int j );
+}
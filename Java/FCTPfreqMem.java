@@ -0,0 +1,176 @@
+/**
+ * Long-term frequency memory of the arcs used by the solutions met during a search. For each
+ * arc, the memory keeps the (weighted) number of recorded solutions with positive flow on the
+ * arc and the (weighted) sum of their costs. Recording a solution only visits its basic arcs,
+ * which are found from the predecessor labels of the basis tree, and hence takes O(m+n) time
+ * (unless the arcs are capacitated, since then non-basic arcs may carry flow as well).
+ *
+ * Optionally, the solutions are weighted by recency and by cost. With a decay factor below 1,
+ * the weight of each recorded solution is 1/decay times that of the previous one, which is
+ * the same as multiplying all earlier weights by decay, but does not require to visit all arcs.
+ * (The weights are rescaled once they become too large.) If cost weighting is used, the weight
+ * is moreover multiplied by c_1/c, where c is the cost of the solution and c_1 that of the
+ * first recorded solution.
+ *
+ * The arc evaluations derived from the memory (see avgCosts and reversedAvgCosts) serve as
+ * evaluation measure for PEheur.Kicksolution_greedy in PEheur.intensify_diversify.
+ *
+ * @version 19/10/2026
+ */
+public class FCTPfreqMem
+{
+  /** instance the arcs belong to */
+  private FCTPbas inst;
+
+  /** factor by which the weight of earlier solutions decreases with each new one (1 = no decay) */
+  public final double decay;
+
+  /** true if solutions are weighted by their cost */
+  public final boolean costWeighted;
+
+  /** weighted number of recorded solutions with positive flow on each arc */
+  private double[] count;
+
+  /** weighted sum of the costs of the recorded solutions with positive flow on each arc */
+  private double[] costSum;
+
+  /** sum of the weights of the recorded solutions */
+  private double totalWeight = 0.0;
+
+  /** recency weight of the next recorded solution */
+  private double weight = 1.0;
+
+  /** cost of the first recorded solution (reference value of the cost weighting) */
+  private double refCost = 0.0;
+
+  /** number of recorded solutions */
+  public int numSols = 0;
+
+  /** largest cost of a recorded solution */
+  public double worst = 0.0;
+
+  /** largest weight before the weights are rescaled */
+  private static final double MAXWEIGHT = 1.0E100;
+
+  /**
+   * Constructor
+   *
+   * @param inst         the FCTP instance
+   * @param decay        factor in (0,1] by which the weight of earlier solutions decreases with each
+   *                     new solution (1 if all solutions have the same weight)
+   * @param costWeighted true if the solutions are weighted by the inverse of their cost
+   */
+  public FCTPfreqMem( FCTPbas inst, double decay, boolean costWeighted )
+  {
+    this.inst = inst;
+    this.decay = ( ( decay > 0.0 ) && ( decay < 1.0 ) ) ? decay : 1.0;
+    this.costWeighted = costWeighted;
+    count = new double[inst.narcs];
+    costSum = new double[inst.narcs];
+  }
+
+  /** Forgets all recorded solutions */
+  public void clear( )
+  {
+    java.util.Arrays.fill( count, 0.0 );
+    java.util.Arrays.fill( costSum, 0.0 );
+    totalWeight = refCost = worst = 0.0;
+    weight = 1.0;
+    numSols = 0;
+  }
+
+  /**
+   * Records a basic solution
+   *
+   * @param sol the solution (of the instance this memory belongs to)
+   */
+  public void add( FCTPsol sol )
+  {
+    if ( numSols == 0 ) refCost = sol.totalCost;
+    numSols++;
+    if ( sol.totalCost > worst ) worst = sol.totalCost;
+    double w = weight;
+    if ( costWeighted && ( sol.totalCost > 0.0 ) ) w *= refCost/sol.totalCost;
+    totalWeight += w;
+    if ( inst.isCapacitated( ) )
+    {
+      for ( int arc=0; arc < inst.narcs; arc++ ) if ( sol.flow[arc] > 0 ) addArc( arc, w, sol.totalCost );
+    }
+    else
+    {
+      int m = inst.m;
+      int n = inst.n;
+      for ( int node=0; node < m+n; node++ )
+      {
+        int pred = sol.tree_p[node];
+        if ( pred < 0 ) continue;
+        int arc = ( node < m ) ? node*n + pred - m : pred*n + node - m;
+        if ( sol.flow[arc] > 0 ) addArc( arc, w, sol.totalCost );
+      }
+    }
+    weight /= decay;
+    if ( weight > MAXWEIGHT ) rescale( );
+  }
+
+  /** Adds a solution of weight w and cost c to the statistics of the arc */
+  private void addArc( int arc, double w, double c )
+  {
+    count[arc] += w;
+    costSum[arc] += w*c;
+  }
+
+  /** Divides all weights by the weight of the next solution */
+  private void rescale( )
+  {
+    for ( int arc=0; arc < inst.narcs; arc++ )
+    {
+      count[arc] /= weight;
+      costSum[arc] /= weight;
+    }
+    totalWeight /= weight;
+    weight = 1.0;
+  }
+
+  /** Returns the weighted proportion of the recorded solutions with positive flow on the arc */
+  public double frequency( int arc )
+  {
+    return( ( totalWeight > 0.0 ) ? count[arc]/totalWeight : 0.0 );
+  }
+
+  /**
+   * Returns the weighted average cost of the recorded solutions with positive flow on the arc,
+   * or Double.NaN if no such solution has been recorded
+   */
+  public double avgCost( int arc )
+  {
+    return( ( count[arc] > 0.0 ) ? costSum[arc]/count[arc] : Double.NaN );
+  }
+
+  /**
+   * Returns for each arc the average cost of the recorded solutions using the arc (see avgCost),
+   * where arcs not used by any of these solutions get five times the largest cost of a solution.
+   * Smaller values are better.
+   */
+  public double[] avgCosts( )
+  {
+    double[] avg = new double[inst.narcs];
+    for ( int arc=0; arc < inst.narcs; arc++ )
+      avg[arc] = ( count[arc] > 0.0 ) ? costSum[arc]/count[arc] : worst*5;
+    return( avg );
+  }
+
+  /**
+   * Returns for each arc the largest cost of a recorded solution minus the average cost of the
+   * recorded solutions using the arc plus one, where arcs not used by any of these solutions get
+   * the value one. Used as evaluation measure where smaller values are better, this reverses
+   * the order of avgCosts (diversification).
+   */
+  public double[] reversedAvgCosts( )
+  {
+    double[] rev = new double[inst.narcs];
+    for ( int arc=0; arc < inst.narcs; arc++ )
+      rev[arc] = ( count[arc] > 0.0 ) ? worst - costSum[arc]/count[arc] + 1.0 : 1.0;
+    return( rev );
+  }
+
+}
@@ -0,0 +1,302 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Generator of synthetic FCTP instances. Instances are drawn from a seed so that
+ * the same (m, n, regime, seed) always gives the same data. The default regime
+ * reproduces the distributions found in the Glover instances (unit transportation
+ * cost uniform in {3,...,8}, fixed cost uniform in [50,200) scaled by 2^fclass,
+ * total supply equal to total demand). Instances can be written in the text format
+ * read by FCTPbas or in a compact binary format that is much faster to load for
+ * large m and n.
+ *
+ * @version 19/10/2026
+ */
+public class FCTPgen
+{
+  /** Constant: Glover like instance (fixed cost in [50,200) * 2^fclass) */
+  public static final int GLOVER = 0;
+
+  /** Constant: high fixed-cost ratio, fixed cost in [50,200) * 2^(fclass+7) */
+  public static final int HIGH_FIXED = 1;
+
+  /** Constant: fixed cost correlated with the unit cost of the arc */
+  public static final int CORRELATED = 2;
+
+  /** Constant: magic number at the start of a binary instance file */
+  public static final int MAGIC = 0x46435450; // "FCTP"
+
+  /** Constant: file suffix used for binary instance files */
+  public static final String BINSUFFIX = ".FCTPB";
+
+  /** Constant: file suffix used for text instance files */
+  public static final String TXTSUFFIX = ".FCTP";
+
+  /** Constant: name of the manifest file written by generateBatch */
+  public static final String MANIFEST = "manifest.txt";
+
+  /** number of suppliers */
+  public int m;
+
+  /** number of customers */
+  public int n;
+
+  /** supply quantities */
+  public int[] supply;
+
+  /** demand quantities */
+  public int[] demand;
+
+  /** unit transportation cost of arc i*n+j */
+  public double[] tcost;
+
+  /** fixed cost of arc i*n+j */
+  public double[] fcost;
+
+  /** regime the instance was drawn from */
+  public int regime;
+
+  /** fixed-cost class of the instance (as the third digit in the Glover names N3k..) */
+  public int fclass;
+
+  /** seed used to draw the instance */
+  public long seed;
+
+  /**
+   * Constructor: draws an instance with m suppliers and n customers. The total
+   * supply is 1000*m as in the Glover instances (see checkSize for the sizes allowed).
+   *
+   * @param m      number of suppliers
+   * @param n      number of customers
+   * @param regime one of GLOVER, HIGH_FIXED or CORRELATED
+   * @param fclass fixed-cost class; the fixed cost range is multiplied by 2^fclass
+   * @param seed   seed of the random number generator
+   */
+  public FCTPgen( int m, int n, int regime, int fclass, long seed )
+  {
+    checkSize( m, n );
+    this.m = m;
+    this.n = n;
+    this.regime = regime;
+    this.fclass = fclass;
+    this.seed = seed;
+    Random rnd = new Random( seed );
+    int total = 1000*m;
+    supply = Partition( total, m, rnd );
+    demand = Partition( total, n, rnd );
+    tcost = new double[m*n];
+    fcost = new double[m*n];
+    double fscale = Math.pow( 2.0, ( regime == HIGH_FIXED ) ? fclass+7 : fclass );
+    for ( int arc=0; arc < m*n; arc++ )
+    {
+      tcost[arc] = 3 + rnd.nextInt( 6 );
+      if ( regime == CORRELATED )
+        fcost[arc] = Math.floor( ( tcost[arc]*25.0 + rnd.nextInt( 50 ) )*fscale );
+      else
+        fcost[arc] = Math.floor( ( 50 + rnd.nextInt( 150 ) )*fscale );
+    }
+  }
+
+  /**
+   * Checks that an instance with m suppliers and n customers can be drawn: each supplier
+   * and customer gets a positive quantity of the total supply 1000*m, so that n must not
+   * exceed 1000*m, and the m*n arcs must fit into an array.
+   *
+   * @throws IllegalArgumentException naming m, n and the total supply if this is not the case
+   */
+  public static void checkSize( int m, int n )
+  {
+    long total = 1000L*m;
+    if ( ( m < 1 ) || ( n < 1 ) || ( n > total ) || ( total > Integer.MAX_VALUE ) 
+         || ( (long)m*n > Integer.MAX_VALUE ) )
+      throw new IllegalArgumentException( "FCTPgen: no instance with m="+m+" suppliers and n="+n
+          +" customers (total supply "+total+"); need m, n >= 1, n <= total and m*n < 2^31" );
+  }
+
+  /**
+   * Splits "total" units randomly into "parts" positive integer quantities.
+   * Cut points are drawn uniformly, which gives the skewed supplies and demands
+   * that are also observed in the Glover instances.
+   *
+   * @param total total quantity to split
+   * @param parts number of parts
+   * @param rnd   random number generator
+   * @return array of the "parts" quantities summing up to total
+   */
+  private static int[] Partition( int total, int parts, Random rnd )
+  {
+    if ( ( parts < 1 ) || ( parts > total ) )
+      throw new IllegalArgumentException( "FCTPgen: cannot split "+total+" units into "+parts+" positive parts" );
+    int[] cut = new int[parts+1];
+    cut[0] = 0;
+    cut[parts] = total - parts;
+    for ( int k=1; k < parts; k++ ) cut[k] = rnd.nextInt( total-parts+1 );
+    Arrays.sort( cut );
+    int[] quant = new int[parts];
+    for ( int k=0; k < parts; k++ ) quant[k] = cut[k+1] - cut[k] + 1;
+    return( quant );
+  }
+
+  /**
+   * Writes the instance in the text format read by FCTPbas( String fname )
+   *
+   * @param fname full path of the file to be written
+   */
+  public void writeText( String fname ) throws IOException
+  {
+    BufferedWriter out = new BufferedWriter( new FileWriter( fname ), 1 << 16 );
+    StringBuilder line = new StringBuilder( 16*Math.max( m, n ) );
+    out.write( m+" "+n+"\n" );
+    for ( int i=0; i < m; i++ ) line.append( supply[i] ).append( ' ' );
+    out.write( line.append( '\n' ).toString() );
+    line.setLength( 0 );
+    for ( int j=0; j < n; j++ ) line.append( demand[j] ).append( ' ' );
+    out.write( line.append( '\n' ).toString() );
+    double[][] costs = { tcost, fcost };
+    for ( double[] c : costs ) for ( int i=0; i < m; i++ )
+    {
+      line.setLength( 0 );
+      for ( int j=0; j < n; j++ ) line.append( (long)c[i*n+j] ).append( ".000000 " );
+      out.write( line.append( '\n' ).toString() );
+    }
+    out.close();
+  }
+
+  /**
+   * Writes the instance in binary format: MAGIC, m, n, supplies, demands (all int)
+   * followed by the unit and fixed costs (double) in arc order i*n+j.
+   *
+   * @param fname full path of the file to be written
+   */
+  public void writeBinary( String fname ) throws IOException
+  {
+    DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( fname ), 1 << 16 ) );
+    out.writeInt( MAGIC );
+    out.writeInt( m );
+    out.writeInt( n );
+    for ( int i=0; i < m; i++ ) out.writeInt( supply[i] );
+    for ( int j=0; j < n; j++ ) out.writeInt( demand[j] );
+    for ( int arc=0; arc < m*n; arc++ ) out.writeDouble( tcost[arc] );
+    for ( int arc=0; arc < m*n; arc++ ) out.writeDouble( fcost[arc] );
+    out.close();
+  }
+
+  /**
+   * Derives the seed of the k-th instance of a batch from the batch seed. The
+   * derived seed does not depend on the order in which instances are generated.
+   */
+  public static long instanceSeed( long seed, int k )
+  {
+    long z = seed + ( k+1 )*0x9E3779B97F4A7C15L;
+    z = ( z ^ ( z >>> 30 ) )*0xBF58476D1CE4E5B9L;
+    z = ( z ^ ( z >>> 27 ) )*0x94D049BB133111EBL;
+    return( z ^ ( z >>> 31 ) );
+  }
+
+  /**
+   * Generates "count" instances of each size (ms[s], ns[s]) in parallel, writes
+   * them to directory "dir" and produces a manifest file listing one instance
+   * per line as "file m n regime fclass seed".
+   *
+   * @param dir      output directory (created if it does not exist)
+   * @param ms       numbers of suppliers
+   * @param ns       numbers of customers (same length as ms)
+   * @param count    number of instances per size
+   * @param regime   regime used for all instances
+   * @param fclass   fixed-cost class used for all instances
+   * @param seed     batch seed
+   * @param binary   true if instances are written in binary format
+   * @param nthreads number of worker threads (0 means number of available cores)
+   * @return the manifest's file names in generation order
+   */
+  public static List<String> generateBatch( String dir, int[] ms, int[] ns, int count, int regime,
+                                            int fclass, long seed, boolean binary, int nthreads ) throws Exception
+  {
+    for ( int s=0; s < ms.length; s++ ) checkSize( ms[s], ns[s] );
+    new File( dir ).mkdirs();
+    if ( nthreads <= 0 ) nthreads = Runtime.getRuntime().availableProcessors();
+    ExecutorService pool = Executors.newFixedThreadPool( nthreads );
+    List<Future<String>> jobs = new ArrayList<Future<String>>();
+    int k = 0;
+    for ( int s=0; s < ms.length; s++ ) for ( int c=0; c < count; c++, k++ )
+    {
+      final int mm = ms[s];
+      final int nn = ns[s];
+      final long iseed = instanceSeed( seed, k );
+      final String fname = dir + File.separator + String.format( "G%d_%dx%d_%d_%03d", regime, mm, nn, fclass, c )
+                         + ( binary ? BINSUFFIX : TXTSUFFIX );
+      jobs.add( pool.submit( () ->
+      {
+        FCTPgen inst = new FCTPgen( mm, nn, regime, fclass, iseed );
+        if ( binary ) inst.writeBinary( fname ); else inst.writeText( fname );
+        return( fname+" "+mm+" "+nn+" "+regime+" "+fclass+" "+iseed );
+      } ) );
+    }
+    List<String> files = new ArrayList<String>();
+    PrintWriter manifest = new PrintWriter( new FileWriter( dir + File.separator + MANIFEST ) );
+    try
+    {
+      for ( Future<String> job : jobs )
+      {
+        String entry = job.get();
+        manifest.println( entry );
+        files.add( entry.substring( 0, entry.indexOf( ' ' ) ) );
+      }
+    }
+    finally
+    {
+      manifest.close();
+      pool.shutdown();
+    }
+    return( files );
+  }
+
+  /**
+   * Reads a manifest written by generateBatch and returns the listed instance files
+   *
+   * @param fname full path of the manifest file
+   */
+  public static List<String> readManifest( String fname ) throws IOException
+  {
+    List<String> files = new ArrayList<String>();
+    BufferedReader in = new BufferedReader( new FileReader( fname ) );
+    for ( String line = in.readLine(); line != null; line = in.readLine() )
+    {
+      line = line.trim();
+      if ( ( line.length() > 0 ) && ( line.charAt(0) != '#' ) ) files.add( line.split( "\\s+" )[0] );
+    }
+    in.close();
+    return( files );
+  }
+
+  /**
+   * Command line use: FCTPgen dir m n count [regime] [fclass] [seed] [bin]
+   */
+  public static void main( String[] args )
+  {
+    if ( args.length < 4 )
+    {
+      System.out.println("Usage: FCTPgen dir m n count <regime> <fclass> <seed> <bin>");
+      System.out.println("  regime: 0=Glover, 1=high fixed cost, 2=correlated fixed cost");
+      return;
+    }
+    try
+    {
+      int[] ms = { Integer.parseInt( args[1] ) };
+      int[] ns = { Integer.parseInt( args[2] ) };
+      int count = Integer.parseInt( args[3] );
+      int regime = ( args.length > 4 ) ? Integer.parseInt( args[4] ) : GLOVER;
+      int fclass = ( args.length > 5 ) ? Integer.parseInt( args[5] ) : 0;
+      long seed = ( args.length > 6 ) ? Long.parseLong( args[6] ) : 1L;
+      boolean bin = ( args.length > 7 ) && ( Integer.parseInt( args[7] ) > 0 );
+      List<String> files = generateBatch( args[0], ms, ns, count, regime, fclass, seed, bin, 0 );
+      System.out.println( files.size()+" instances written to "+args[0] );
+    }
+    catch ( Exception exc )
+    {
+      System.out.println("Error: " + exc.getMessage());
+    }
+  }
+
+}
@@ -0,0 +1,162 @@
+import java.util.*;
+
+/**
+ * Implicit cost model for geometric FCTP instances. Suppliers and customers are
+ * points in the plane. The unit transportation cost of an arc is proportional to
+ * the Euclidean distance between its end nodes, and its fixed cost depends on the
+ * route class, which is given by the distance band the arc falls into. Only O(m+n)
+ * data is stored. Optionally, the costs of a few supplier rows are cached, since
+ * the local search often evaluates several arcs of the same supplier in a row.
+ * A cached object is not thread-safe; use one object per thread in that case.
+ *
+ * @version 19/10/2026
+ */
+public class FCTPgeocost implements FCTPcost
+{
+  /** x- and y-coordinates of the suppliers */
+  private double[] sx, sy;
+
+  /** x- and y-coordinates of the customers */
+  private double[] cx, cy;
+
+  /** unit transportation cost per unit of distance */
+  private double costPerDist;
+
+  /** classLimit[k] is the largest distance of an arc belonging to route class k (increasing) */
+  private double[] classLimit;
+
+  /** classFcost[k] is the fixed cost of an arc of route class k */
+  private double[] classFcost;
+
+  /** number of customers */
+  private int n;
+
+  /** number of supplier rows kept in the cache (0 if no cache is used) */
+  private int cacheRows;
+
+  /** cacheTag[slot] is the supplier whose row is stored in cache slot "slot" (-1 if empty) */
+  private int[] cacheTag;
+
+  /** cached unit costs: cacheT[slot*n+j] */
+  private double[] cacheT;
+
+  /** cached fixed costs: cacheF[slot*n+j] */
+  private double[] cacheF;
+
+  /** number of requests served from and not from the cache */
+  private long hits=0, misses=0;
+
+  /**
+   * Constructor. Arcs longer than the last class limit belong to the last class.
+   *
+   * @param sx          x-coordinates of the m suppliers
+   * @param sy          y-coordinates of the m suppliers
+   * @param cx          x-coordinates of the n customers
+   * @param cy          y-coordinates of the n customers
+   * @param costPerDist unit transportation cost per unit of distance
+   * @param classLimit  increasing upper distance limits of the route classes
+   * @param classFcost  fixed cost of each route class
+   * @param cacheRows   number of supplier rows to be cached (0 for no cache)
+   */
+  public FCTPgeocost( double[] sx, double[] sy, double[] cx, double[] cy, double costPerDist,
+                      double[] classLimit, double[] classFcost, int cacheRows )
+  {
+    this.sx = sx;
+    this.sy = sy;
+    this.cx = cx;
+    this.cy = cy;
+    this.n  = cx.length;
+    this.costPerDist = costPerDist;
+    this.classLimit = classLimit;
+    this.classFcost = classFcost;
+    this.cacheRows = Math.max( 0, Math.min( cacheRows, sx.length ) );
+    if ( this.cacheRows > 0 )
+    {
+      cacheTag = new int[this.cacheRows];
+      Arrays.fill( cacheTag, -1 );
+      cacheT = new double[this.cacheRows*n];
+      cacheF = new double[this.cacheRows*n];
+    }
+  }
+
+  /**
+   * Creates a random geometric cost model with nodes uniformly distributed in the
+   * square [0,100]x[0,100] and four route classes of increasing fixed cost.
+   *
+   * @param m         number of suppliers
+   * @param n         number of customers
+   * @param seed      seed of the random number generator
+   * @param cacheRows number of supplier rows to be cached (0 for no cache)
+   */
+  public static FCTPgeocost random( int m, int n, long seed, int cacheRows )
+  {
+    Random rnd = new Random( seed );
+    double[] sx = new double[m], sy = new double[m];
+    double[] cx = new double[n], cy = new double[n];
+    for ( int i=0; i < m; i++ ) { sx[i] = 100*rnd.nextDouble(); sy[i] = 100*rnd.nextDouble(); }
+    for ( int j=0; j < n; j++ ) { cx[j] = 100*rnd.nextDouble(); cy[j] = 100*rnd.nextDouble(); }
+    double[] limit = { 20.0, 50.0, 90.0, Double.MAX_VALUE };
+    double[] fixed = { 100.0, 200.0, 400.0, 800.0 };
+    return( new FCTPgeocost( sx, sy, cx, cy, 0.1, limit, fixed, cacheRows ) );
+  }
+
+  /** Returns the distance between supplier i and customer j */
+  private double dist( int i, int j )
+  {
+    double dx = sx[i] - cx[j];
+    double dy = sy[i] - cy[j];
+    return( Math.sqrt( dx*dx + dy*dy ) );
+  }
+
+  /** Returns the fixed cost of an arc of length d */
+  private double classCost( double d )
+  {
+    int k = 0;
+    while ( ( k < classLimit.length-1 ) && ( d > classLimit[k] ) ) k++;
+    return( classFcost[k] );
+  }
+
+  /**
+   * Returns the cache slot holding the row of supplier i. The row is computed
+   * if it is not yet in the cache (direct mapped cache: slot = i % cacheRows).
+   */
+  private int cachedRow( int i )
+  {
+    int slot = i % cacheRows;
+    if ( cacheTag[slot] == i )
+    {
+      hits++;
+      return( slot );
+    }
+    misses++;
+    cacheTag[slot] = i;
+    int base = slot*n;
+    for ( int j=0; j < n; j++ )
+    {
+      double d = dist( i, j );
+      cacheT[base+j] = costPerDist*d;
+      cacheF[base+j] = classCost( d );
+    }
+    return( slot );
+  }
+
+  public double gettcost( int i, int j )
+  {
+    if ( cacheRows == 0 ) return( costPerDist*dist( i, j ) );
+    return( cacheT[cachedRow( i )*n+j] );
+  }
+
+  public double getfcost( int i, int j )
+  {
+    if ( cacheRows == 0 ) return( classCost( dist( i, j ) ) );
+    return( cacheF[cachedRow( i )*n+j] );
+  }
+
+  /** Returns the fraction of cost requests served from the row cache */
+  public double getHitRate( )
+  {
+    long total = hits + misses;
+    return( ( total == 0 ) ? 0.0 : (double)hits/(double)total );
+  }
+
+}
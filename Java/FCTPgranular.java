@@ -0,0 +1,206 @@
+import java.util.*;
+
+/**
+ * Candidate arcs for granular solution construction. For each supplier the k customers
+ * and for each customer the k suppliers with the smallest linearised cost (unit cost plus
+ * fixed cost divided by arc capacity) are determined once. A construction then keeps a
+ * list of "live" candidate arcs, that is candidate arcs whose supplier and customer still
+ * have positive remaining supply and demand. Only if a supplier or customer has no live
+ * candidate arc anymore, its row or column is evaluated completely and its k best arcs
+ * to the remaining nodes are added to the list.
+ *
+ * The candidate set is computed by the constructor FCTPgranular( inst, k ) and can be
+ * shared by several objects (and threads) that are created by the copy constructor; the
+ * live list is private to each object.
+ *
+ * @version 19/10/2026
+ */
+public class FCTPgranular
+{
+  /** instance the candidate arcs belong to */
+  private FCTPbas inst;
+
+  /** number of candidates per node */
+  public final int k;
+
+  /** candidate arcs in increasing order (shared between copies) */
+  private int[] cand;
+
+  /** live arcs arcs[0], ..., arcs[len-1] */
+  public int[] arcs;
+
+  /** number of live arcs */
+  public int len;
+
+  /** degS[i] = number of live arcs of supplier i */
+  private int[] degS;
+
+  /** degC[j] = number of live arcs of customer j */
+  private int[] degC;
+
+  /**
+   * Constructor that determines the candidate arcs
+   *
+   * @param inst the FCTP instance
+   * @param k    number of candidate arcs per supplier and per customer
+   */
+  public FCTPgranular( FCTPbas inst, int k )
+  {
+    this.inst = inst;
+    this.k = k;
+    int m = inst.m;
+    int n = inst.n;
+    boolean[] mark = new boolean[inst.narcs];
+    int[] best = new int[k];
+    double[] bval = new double[k];
+    for ( int i=0; i < m; i++ )
+    {
+      int cnt = 0;
+      for ( int j=0; j < n; j++ ) cnt = Insert( i*n+j, linCost( i*n+j ), best, bval, cnt );
+      for ( int l=0; l < cnt; l++ ) mark[best[l]] = true;
+    }
+    for ( int j=0; j < n; j++ )
+    {
+      int cnt = 0;
+      for ( int i=0; i < m; i++ ) cnt = Insert( i*n+j, linCost( i*n+j ), best, bval, cnt );
+      for ( int l=0; l < cnt; l++ ) mark[best[l]] = true;
+    }
+    int num = 0;
+    for ( int arc=0; arc < inst.narcs; arc++ ) if ( mark[arc] ) num++;
+    cand = new int[num];
+    num = 0;
+    for ( int arc=0; arc < inst.narcs; arc++ ) if ( mark[arc] ) cand[num++] = arc;
+    allocMem( );
+  }
+
+  /**
+   * Constructor that shares the candidate arcs of another object
+   *
+   * @param src object whose candidate arcs are used
+   */
+  public FCTPgranular( FCTPgranular src )
+  {
+    inst = src.inst;
+    k = src.k;
+    cand = src.cand;
+    allocMem( );
+  }
+
+  /** Allocates the memory for the live list */
+  private void allocMem( )
+  {
+    arcs = new int[cand.length + inst.m + inst.n];
+    degS = new int[inst.m];
+    degC = new int[inst.n];
+  }
+
+  /** Returns the number of candidate arcs */
+  public int size( )
+  {
+    return( cand.length );
+  }
+
+  /** Returns the linearised cost of an arc used to rank the candidates */
+  private double linCost( int arc )
+  {
+    return( linCost( inst, arc ) );
+  }
+
+  /** Returns the linearised cost (unit cost plus fixed cost divided by capacity) of an arc */
+  static double linCost( FCTPbas inst, int arc )
+  {
+    return( inst.gettcost( arc ) + inst.getfcost( arc )/Math.max( 1, inst.getCap( arc ) ) );
+  }
+
+  /**
+   * Inserts an arc into the list of the cnt (at most k) best arcs sorted by value
+   *
+   * @return new length of the list
+   */
+  static int Insert( int arc, double val, int[] best, double[] bval, int cnt )
+  {
+    if ( ( cnt == best.length ) && ( val >= bval[cnt-1] ) ) return( cnt );
+    int pos = ( cnt < best.length ) ? cnt++ : cnt-1;
+    while ( ( pos > 0 ) && ( bval[pos-1] > val ) )
+    {
+      best[pos] = best[pos-1];
+      bval[pos] = bval[pos-1];
+      pos--;
+    }
+    best[pos] = arc;
+    bval[pos] = val;
+    return( cnt );
+  }
+
+  /**
+   * Starts a new construction: all candidate arcs are live
+   */
+  public void start( )
+  {
+    System.arraycopy( cand, 0, arcs, 0, cand.length );
+    len = cand.length;
+  }
+
+  /**
+   * Removes arcs whose supplier or customer is exhausted from the live list and adds
+   * the k best arcs of each remaining supplier and customer that has no live arc anymore.
+   *
+   * @param r_supply  remaining supplies
+   * @param r_demand  remaining demands
+   * @param suppliers suppliers[0], ..., suppliers[mm-1] are the suppliers with remaining supply
+   * @param mm        number of suppliers with remaining supply
+   * @param customers customers[0], ..., customers[nn-1] are the customers with remaining demand
+   * @param nn        number of customers with remaining demand
+   */
+  public void refresh( int[] r_supply, int[] r_demand, int[] suppliers, int mm, int[] customers, int nn )
+  {
+    int n = inst.n;
+    for ( int p=0; p < mm; p++ ) degS[suppliers[p]] = 0;
+    for ( int q=0; q < nn; q++ ) degC[customers[q]] = 0;
+    int live = 0;
+    for ( int c=0; c < len; c++ )
+    {
+      int arc = arcs[c];
+      int i = arc/n;
+      int j = arc%n;
+      if ( ( r_supply[i] > 0 ) && ( r_demand[j] > 0 ) )
+      {
+        arcs[live++] = arc;
+        degS[i]++;
+        degC[j]++;
+      }
+    }
+    len = live;
+
+    // Full evaluation of the rows and columns whose candidates are exhausted
+    int kk = Math.min( k, Math.max( mm, nn ) );
+    int[] best = null;
+    double[] bval = null;
+    for ( int p=0; p < mm; p++ ) if ( degS[suppliers[p]] == 0 )
+    {
+      if ( best == null ) { best = new int[kk]; bval = new double[kk]; }
+      int i = suppliers[p];
+      int cnt = 0;
+      for ( int q=0; q < nn; q++ ) cnt = Insert( i*n+customers[q], linCost( i*n+customers[q] ), best, bval, cnt );
+      for ( int l=0; l < cnt; l++ ) addArc( best[l] );
+    }
+    for ( int q=0; q < nn; q++ ) if ( degC[customers[q]] == 0 )
+    {
+      if ( best == null ) { best = new int[kk]; bval = new double[kk]; }
+      int j = customers[q];
+      int cnt = 0;
+      for ( int p=0; p < mm; p++ ) cnt = Insert( suppliers[p]*n+j, linCost( suppliers[p]*n+j ), best, bval, cnt );
+      for ( int l=0; l < cnt; l++ ) addArc( best[l] );
+    }
+  }
+
+  /** Appends an arc to the live list */
+  private void addArc( int arc )
+  {
+    if ( len == arcs.length ) arcs = Arrays.copyOf( arcs, 2*len );
+    arcs[len++] = arc;
+    degS[arc/inst.n]++;
+    degC[arc%inst.n]++;
+  }
+
+}
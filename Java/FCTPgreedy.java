@@ -8,6 +8,18 @@ import java.util.*;
  */
 public class FCTPgreedy extends FCTPbas
 {
+  /** Constant: selection rule of the deterministic greedy in GranularConstruct */
+  protected static final int SEL_GREEDY = 0;
+
+  /** Constant: selection rule of the randomised greedy in GranularConstruct */
+  protected static final int SEL_RANDGREEDY = 1;
+
+  /** Constant: selection rule of an ant in GranularConstruct */
+  protected static final int SEL_ANT = 2;
+
+  /** candidate arcs used by granular constructions (null if not yet computed) */
+  private FCTPgranular granCand = null;
+
   /**
    * Constructor 
    *    
@@ -34,6 +46,20 @@ public class FCTPgreedy extends FCTPbas
     super( mm, nn, s, d, tc, fc, copyDat );  
   }    
 
+  /**
+   * Constructor that takes an implicit cost model instead of cost arrays
+   * 
+   *  @param mm       number of suppliers
+   *  @param nn       number of customers
+   *  @param s        integer array of mm supply quantities
+   *  @param d        integer array of nn demand quantities
+   *  @param cst      cost model computing unit and fixed cost of each arc on demand
+   */
+  public FCTPgreedy( int mm, int nn, int[] s, int[] d, FCTPcost cst ) 
+  {
+    super( mm, nn, s, d, cst );  
+  }    
+
   public double GreedyValue( int i, int j, int rs, int rd )
   {
     double gval = Double.MAX_VALUE;  
@@ -56,61 +82,128 @@ public class FCTPgreedy extends FCTPbas
 
   /** 
    *  Greedy method for constructing feasible solution. The greedy measure specified in 
-   *  parameter FCTPparam.greedy_meas is applied.
+   *  parameter FCTPparam.greedy_meas is applied. Instead of re-evaluating all remaining
+   *  pairs of suppliers and customers in each step, the arcs are kept in a heap. After an 
+   *  assignment, only the row and column whose remaining quantity changed (and the row and 
+   *  column moved to another position in the lists of remaining suppliers and customers) 
+   *  are re-inserted; outdated heap entries are recognized by version stamps and skipped.
+   *  Ties are broken in the same order as by a complete scan over these lists.
    */
-  
   public void Greedy( ) 
   {  
+    if ( FCTPparam.gran_k > 0 ) 
+    {
+      GranularConstruct( SEL_GREEDY, 0.0, null );
+      return;
+    }
+
     // Array of remaining supplies and demands
     int[] r_supply = new int[m];
     int[] r_demand = new int[n];
     System.arraycopy( supply, 0, r_supply, 0, m );
     System.arraycopy( demand, 0, r_demand, 0, n );
    
-    // List of suppliers and customers that still have supplies and demand, resp.
+    // List of suppliers and customers that still have supplies and demand, resp.,
+    // and the position of each supplier and customer in these lists
     int[] suppliers = new int[m];
     int[] customers = new int[n];
-    for ( int i=0; i < m; i++ ) suppliers[i]=i;
-    for ( int j=0; j < n; j++ ) customers[j]=j;
+    int[] s_pos = new int[m];
+    int[] c_pos = new int[n];
+    for ( int i=0; i < m; i++ ) suppliers[i] = s_pos[i] = i;
+    for ( int j=0; j < n; j++ ) customers[j] = c_pos[j] = j;
     
     // Set all flows on the arcs to zero
     Arrays.fill( solution.flow, 0 );
 
+    // Greedy values depend on the remaining quantities if fixed costs are linearised by 
+    // the remaining capacity or if the total cost of the remaining quantity is used
+    boolean dynamic = ( FCTPparam.greedy_meas == FCTPparam.GR_LIN_REMCAP ) 
+                   || ( FCTPparam.greedy_meas == FCTPparam.GR_LIN_TOTC );
+
+    // Heap of all arcs keyed by their greedy value
+    int[] rowVer = new int[m];
+    int[] colVer = new int[n];
+    FCTPheap heap = new FCTPheap( narcs );
+    for ( int i=0; i < m; i++ ) for ( int j=0; j < n; j++ )
+      heap.push( GreedyValue( i, j, r_supply[i], r_demand[j] ), (long)i*n+j, i*n+j, 0L );
+
     // Iteratively put as much transport as possible on a selected arc 
     // until demand and supply is exhausted.
-
     int mm = m; // remaining number of suppliers showing positive supplies
     int nn = n; // remaining number of customers showing positive demands
+    int[] rows = new int[2];
+    int[] cols = new int[2];
     while ( ( mm > 0 ) && ( nn > 0 ) ) 
     {
-      double minVal = Double.MAX_VALUE;
-      int is = -1; 
-      int js = -1;
-      // Compute greedy evaluations of arcs 
-      for ( int i=0; i < mm; i++ ) 
+      // Take the best arc whose heap entry is up to date
+      int ii, jj;
+      do
       {
-        int ii = suppliers[i];
-        for ( int j=0; j < nn; j++ ) 
-        {
-          int jj = customers[j]; 
-          double greedyVal = GreedyValue( ii, jj, r_supply[ii], r_demand[jj] );
-          if ( greedyVal < minVal ) 
-          {
-            minVal = greedyVal;
-            is = i;
-            js = j; // Remember "best" supplier/customer pair
-          }
-        }
-      }
+        heap.pop( );
+        ii = heap.topItem/n;
+        jj = heap.topItem%n;
+      } while ( heap.topStamp != ( ( (long)rowVer[ii] << 32 ) | colVer[jj] ) );
+      
       // Flow as much as possible on the selected arc
-      int ii = suppliers[is];
-      int jj = customers[js];
       int arc = ii*n + jj;
       solution.flow[arc] = Math.min( r_supply[ii], r_demand[jj] );
       r_supply[ii] -= solution.flow[arc];
       r_demand[jj] -= solution.flow[arc];    
-      if ( r_supply[ii]==0 ) suppliers[is]  = suppliers[--mm];
-      if ( r_demand[jj]==0 ) customers[js] = customers[--nn];
+
+      // Remove exhausted supplier/customer and remember rows/columns to be re-evaluated
+      int nrows = 0;
+      int ncols = 0;
+      if ( ( dynamic ) || ( r_supply[ii]==0 ) ) rowVer[ii]++;
+      if ( ( dynamic ) || ( r_demand[jj]==0 ) ) colVer[jj]++;
+      if ( r_supply[ii]==0 ) 
+      {
+        int is = s_pos[ii];
+        if ( is < --mm )
+        {
+          int moved = suppliers[mm];
+          suppliers[is] = moved;
+          s_pos[moved] = is;
+          rowVer[moved]++;
+          rows[nrows++] = moved;
+        }
+      }
+      else if ( dynamic ) rows[nrows++] = ii;
+      if ( r_demand[jj]==0 ) 
+      {
+        int js = c_pos[jj];
+        if ( js < --nn )
+        {
+          int moved = customers[nn];
+          customers[js] = moved;
+          c_pos[moved] = js;
+          colVer[moved]++;
+          cols[ncols++] = moved;
+        }
+      }
+      else if ( dynamic ) cols[ncols++] = jj;
+      
+      // Re-insert the arcs of the rows and columns that changed
+      for ( int r=0; r < nrows; r++ ) 
+      {
+        int i = rows[r];
+        for ( int q=0; q < nn; q++ ) 
+        {
+          int j = customers[q];
+          heap.push( GreedyValue( i, j, r_supply[i], r_demand[j] ), (long)s_pos[i]*n+q, i*n+j, 
+                     ( (long)rowVer[i] << 32 ) | colVer[j] );
+        }
+      }
+      for ( int c=0; c < ncols; c++ ) 
+      {
+        int j = cols[c];
+        for ( int p=0; p < mm; p++ ) 
+        {
+          int i = suppliers[p];
+          if ( ( nrows > 0 && rows[0] == i ) || ( nrows > 1 && rows[1] == i ) ) continue;
+          heap.push( GreedyValue( i, j, r_supply[i], r_demand[j] ), (long)p*n+c_pos[j], i*n+j, 
+                     ( (long)rowVer[i] << 32 ) | colVer[j] );
+        }
+      }
     }
 
     // Compute cost of the solution and the corresponding basis tree 
@@ -118,7 +211,6 @@ public class FCTPgreedy extends FCTPbas
 
   }
 
-
   /**
    * Construct a random initital basic feasbile soluton by selecting in each iteration one arc completely at
    * random and setting as much flow as possible on this arc until all supplies are exhausted and demands met. 
@@ -165,7 +257,36 @@ public class FCTPgreedy extends FCTPbas
   }
 
   /**
-   * Randomised greedy method to the FCTP 
+   * Recomputes the smallest and largest greedy value in row i over the remaining customers
+   *
+   * @param i         the supplier
+   * @param nn        number of remaining customers
+   * @param customers list of remaining customers
+   * @param val       val[i*n+j] is the greedy value of arc (i,j)
+   * @param rowMin    rowMin[i] is set to the smallest value in row i 
+   * @param rowMax    rowMax[i] is set to the largest value in row i 
+   */
+  private void RowBounds( int i, int nn, int[] customers, double[] val, double[] rowMin, double[] rowMax )
+  {
+    double lo = Double.MAX_VALUE;
+    double hi = 0.0;
+    for ( int q=0; q < nn; q++ ) 
+    {
+      double gval = val[i*n+customers[q]];
+      if ( gval < lo ) lo = gval;
+      if ( gval > hi ) hi = gval;
+    }
+    rowMin[i] = lo;
+    rowMax[i] = hi;
+  }
+
+  /**
+   * Randomised greedy method to the FCTP. The greedy values of the remaining arcs are 
+   * kept together with the smallest and largest value in each row. After an assignment, 
+   * only the row and column whose remaining quantity changed are re-evaluated, and the
+   * bounds of a row are recomputed only if the changed or removed column attained them. 
+   * Rows whose smallest value exceeds the threshold are skipped when building the 
+   * restricted candidate list.
    *
    * @param double alpha parameter in [0,1] controlling the restricted candidate list:
    *                     alpha=0 => a deterministic greedy is applied;
@@ -173,6 +294,12 @@ public class FCTPgreedy extends FCTPbas
    */
   public void RandGreedy( double alpha ) 
   {  
+    if ( FCTPparam.gran_k > 0 ) 
+    {
+      GranularConstruct( SEL_RANDGREEDY, alpha, null );
+      return;
+    }
+
     // Initialise remaining supply and demand
     int[] r_supply  = new int[m];
     int[] r_demand  = new int[n];
@@ -188,43 +315,48 @@ public class FCTPgreedy extends FCTPbas
     // Set all flows on the arcs to zero
     Arrays.fill( solution.flow, 0 );
 
+    // Greedy values depend on the remaining quantities if fixed costs are linearised by 
+    // the remaining capacity or if the total cost of the remaining quantity is used
+    boolean dynamic = ( FCTPparam.greedy_meas == FCTPparam.GR_LIN_REMCAP ) 
+                   || ( FCTPparam.greedy_meas == FCTPparam.GR_LIN_TOTC );
+
+    // Greedy values and their bounds in each row
+    double[] val = new double[narcs];
+    double[] rowMin = new double[m];
+    double[] rowMax = new double[m];
+    for ( int i=0; i < m; i++ ) 
+    {
+      for ( int j=0; j < n; j++ ) val[i*n+j] = GreedyValue( i, j, r_supply[i], r_demand[j] );
+      RowBounds( i, n, customers, val, rowMin, rowMax );
+    }  
+
     // Iteratively add arcs until demand and supply is exhausted.
     int mm = m;
     int nn = n;
-    ArrayList arc_lst = new ArrayList( );
+    int[] arc_lst = new int[narcs];
     while ( ( mm > 0 ) && ( nn > 0 ) ) 
     {
       double min_val = Double.MAX_VALUE;
       double max_val = 0.0;
-      // Compute greedy evaluations of arcs 
       for ( int i=0; i < mm; i++ ) 
       {
         int ii = suppliers[i];
-        for ( int j=0; j < nn; j++ ) 
-        {
-          int jj  = customers[j];  
-          int arc = i*nn + j;
-          double gval =  GreedyValue( ii, jj, r_supply[ii], r_demand[jj] );
-          if ( gval < min_val ) min_val = gval;
-          if ( gval > max_val ) max_val = gval;
-        }
+        if ( rowMin[ii] < min_val ) min_val = rowMin[ii];
+        if ( rowMax[ii] > max_val ) max_val = rowMax[ii];
       }
       // Build restricted candidate list 
-      arc_lst.clear();
+      double thresh = min_val + alpha*(max_val - min_val) + FCTPparam.tolval;
+      int num_cand = 0;
       for ( int i=0; i < mm; i++ ) 
       {
         int ii = suppliers[i];
+        if ( rowMin[ii] > thresh ) continue;
+        int base = ii*n;
         for ( int j=0; j < nn; j++ ) 
-        {
-          int jj = customers[j];
-          double gval = GreedyValue( ii, jj, r_supply[ii], r_demand[jj] );
-          if ( gval <= min_val + alpha*(max_val - min_val) + FCTPparam.tolval ) 
-            arc_lst.add( i*nn+j );
-        }
+          if ( val[base+customers[j]] <= thresh ) arc_lst[num_cand++] = i*nn+j;
       }
       // Pick an arc randomly from the candidate list
-      int indx = randgen.nextInt(arc_lst.size());
-      int arc = (Integer) ( arc_lst.get(indx) );
+      int arc = arc_lst[randgen.nextInt( num_cand )];
       // Flow as much as possible on the selected arc 
       int i = arc/nn;
       int j = arc % nn;
@@ -236,6 +368,41 @@ public class FCTPgreedy extends FCTPbas
       r_demand[jj] -= ecap;    
       if ( r_supply[ii]==0 ) suppliers[i] = suppliers[--mm];
       if ( r_demand[jj]==0 ) customers[j] = customers[--nn];
+
+      // Update values and row bounds affected by the changes in row ii and column jj
+      if ( ( dynamic ) && ( r_supply[ii] > 0 ) ) 
+      {
+        for ( int q=0; q < nn; q++ ) 
+        {
+          int jc = customers[q];
+          val[ii*n+jc] = GreedyValue( ii, jc, r_supply[ii], r_demand[jc] );
+        }  
+      }
+      if ( ( r_supply[ii] > 0 ) && ( ( dynamic ) || ( r_demand[jj]==0 ) ) )
+        RowBounds( ii, nn, customers, val, rowMin, rowMax );
+      if ( ( r_demand[jj]==0 ) || ( dynamic ) )
+      {
+        for ( int p=0; p < mm; p++ )
+        {
+          int ic = suppliers[p];
+          if ( ic == ii ) continue;
+          double old = val[ic*n+jj];
+          if ( r_demand[jj] > 0 ) 
+          {
+            double gval = GreedyValue( ic, jj, r_supply[ic], r_demand[jj] );
+            val[ic*n+jj] = gval;
+            if ( ( old > rowMin[ic] ) && ( old < rowMax[ic] ) )
+            {
+              // old value did not attain a bound: just extend the bounds
+              if ( gval < rowMin[ic] ) rowMin[ic] = gval;
+              if ( gval > rowMax[ic] ) rowMax[ic] = gval;
+              continue;
+            }
+          }
+          else if ( ( old > rowMin[ic] ) && ( old < rowMax[ic] ) ) continue;
+          RowBounds( ic, nn, customers, val, rowMin, rowMax );
+        }
+      }
     }
 
     // Compute cost of the solution and set up the corresponding basis tree
@@ -243,5 +410,205 @@ public class FCTPgreedy extends FCTPbas
 
   }
 
+  /**
+   * Returns the candidate arcs for granular constructions with FCTPparam.gran_k arcs per node.
+   * They are computed on the first call and whenever gran_k has changed.
+   */
+  protected synchronized FCTPgranular getCandidates( )
+  {
+    if ( ( granCand == null ) || ( granCand.k != FCTPparam.gran_k ) ) 
+      granCand = new FCTPgranular( this, FCTPparam.gran_k );
+    return( granCand );
+  }
+
+  /**
+   * Uses the candidate arcs of granular constructions of another object with the same data
+   * (e.g. a worker object of a parallel method), so that they are computed only once.
+   *
+   * @param src object whose candidate arcs are used
+   */
+  protected synchronized void shareCandidates( FCTPgreedy src )
+  {
+    granCand = ( FCTPparam.gran_k > 0 ) ? src.getCandidates() : null;
+  }
+
+  /**
+   * Discards the candidate arcs of granular constructions. Has to be called if the data
+   * have been changed.
+   */
+  protected synchronized void resetCandidates( )
+  {
+    granCand = null;
+  }
+
+  /**
+   * Granular construction of a basic solution: in each step, only the live candidate arcs
+   * (see FCTPgranular) are evaluated instead of all pairs of remaining suppliers and 
+   * customers. The arc is then selected by one of the following rules:
+   * SEL_GREEDY: arc of smallest greedy value;
+   * SEL_RANDGREEDY: arc chosen randomly from the restricted candidate list as in RandGreedy;
+   * SEL_ANT: pseudo-random selection based on greedy and pheromone values as in AntProcess.
+   *
+   * @param rule      selection rule
+   * @param param     alpha if rule=SEL_RANDGREEDY and q0 if rule=SEL_ANT
+   * @param pheromone pheromone values if rule=SEL_ANT (otherwise not used)
+   */
+  protected void GranularConstruct( int rule, double param, double[] pheromone )
+  {
+    // Initialise remaining supply and demand
+    int[] r_supply  = new int[m];
+    int[] r_demand  = new int[n];
+    System.arraycopy( supply, 0, r_supply, 0, m );
+    System.arraycopy( demand, 0, r_demand, 0, n );
+
+    // Lists of suppliers and customers with positive remaining supply and demand
+    int[] suppliers = new int[m];
+    int[] customers = new int[n];
+    int[] s_pos = new int[m];
+    int[] c_pos = new int[n];
+    for ( int i=0; i < m; i++ ) suppliers[i] = s_pos[i] = i;
+    for ( int j=0; j < n; j++ ) customers[j] = c_pos[j] = j;
+    
+    // Set all flows on the arcs to zero
+    Arrays.fill( solution.flow, 0 );
+
+    FCTPgranular cand = new FCTPgranular( getCandidates() );
+    cand.start( );
+    double[] val = new double[cand.arcs.length];
+    int mm = m;
+    int nn = n;
+    while ( ( mm > 0 ) && ( nn > 0 ) ) 
+    {
+      cand.refresh( r_supply, r_demand, suppliers, mm, customers, nn );
+      if ( val.length < cand.len ) val = new double[cand.arcs.length];
+
+      // Evaluate the live arcs
+      double min_val = Double.MAX_VALUE;
+      double max_val = 0.0;
+      int bst = -1;
+      for ( int c=0; c < cand.len; c++ )
+      {
+        int ii = cand.arcs[c]/n;
+        int jj = cand.arcs[c]%n;
+        double gval = GreedyValue( ii, jj, r_supply[ii], r_demand[jj] );
+        if ( rule == SEL_ANT ) 
+        {
+          gval *= pheromone[cand.arcs[c]];
+          if ( gval > max_val ) bst = c;
+        }
+        else if ( gval < min_val ) bst = c;
+        if ( gval < min_val ) min_val = gval;
+        if ( gval > max_val ) max_val = gval;
+        val[c] = gval;
+      }
+
+      // Select an arc
+      int sel = bst;
+      if ( rule == SEL_RANDGREEDY )
+      {
+        double thresh = min_val + param*(max_val - min_val) + FCTPparam.tolval;
+        int num_cand = 0;
+        for ( int c=0; c < cand.len; c++ ) if ( val[c] <= thresh ) num_cand++;
+        int pick = randgen.nextInt( num_cand );
+        for ( sel=0; ; sel++ ) if ( ( val[sel] <= thresh ) && ( pick-- == 0 ) ) break;
+      }
+      else if ( ( rule == SEL_ANT ) && ( randgen.nextDouble() > param ) )
+      { // Randomly choose an arc with probability proportional to its "value"
+        double sum_val = 0.0;
+        for ( int c=0; c < cand.len; c++ ) sum_val += val[c];
+        double a_rnd = randgen.nextDouble();
+        double asum = 0.0;
+        for ( sel=0; sel < cand.len-1; sel++ )
+        {
+          asum += val[sel]/sum_val;
+          if ( asum + 1.0E-6 > a_rnd ) break;
+        }
+      }
+
+      // Flow as much as possible on the selected arc 
+      int arc = cand.arcs[sel];
+      int ii = arc/n;
+      int jj = arc%n;
+      int ecap = Math.min( r_supply[ii], r_demand[jj] );
+      solution.flow[arc] = ecap;
+      r_supply[ii] -= ecap;
+      r_demand[jj] -= ecap;    
+      if ( r_supply[ii]==0 ) 
+      {
+        int moved = suppliers[--mm];
+        suppliers[s_pos[ii]] = moved;
+        s_pos[moved] = s_pos[ii];
+      }
+      if ( r_demand[jj]==0 ) 
+      {
+        int moved = customers[--nn];
+        customers[c_pos[jj]] = moved;
+        c_pos[moved] = c_pos[jj];
+      }
+    }
+
+    // Compute cost of the solution and set up the corresponding basis tree
+    setBasicSolution();
+  }
+
+  /**
+   * Constructs a basic solution which is close to a given (old) solution. This is used to
+   * repair a solution after supplies and demands have changed. First, the old flows are
+   * kept as far as the (new) supplies and demands permit. The remaining supplies and demands 
+   * are then assigned greedily, where arcs already carrying flow are evaluated by their unit 
+   * cost and all other arcs by unit cost with fixed cost linearised by arc capacity. Finally,
+   * the flow is made basic by method cancelCycles.
+   *
+   * @param oldFlow old flows on the arcs arc=0,...,narcs-1
+   */
+  public void GreedyRepair( int[] oldFlow )
+  {
+    // Initialise remaining supply and demand
+    int[] r_supply  = new int[m];
+    int[] r_demand  = new int[n];
+    System.arraycopy( supply, 0, r_supply, 0, m );
+    System.arraycopy( demand, 0, r_demand, 0, n );
+
+    // Keep the old flows as far as possible
+    Arrays.fill( solution.flow, 0 );
+    for ( int arc=0; arc < narcs; arc++ ) if ( oldFlow[arc] > 0 )
+    {
+      int i = arc/n;
+      int j = arc%n;
+      int x = Math.min( oldFlow[arc], Math.min( r_supply[i], r_demand[j] ) );
+      solution.flow[arc] = x;
+      r_supply[i] -= x;
+      r_demand[j] -= x;
+    }
+
+    // Assign remaining supplies and demands greedily. The arcs are sorted by key as longs 
+    // holding the key in single precision (bits mapped such that they are ordered like the
+    // float values) in the upper and the arc in the lower 32 bits.
+    long[] order = new long[narcs];
+    for ( int arc=0; arc < narcs; arc++ ) 
+    {
+      double key = gettcost( arc );
+      if ( solution.flow[arc] == 0 ) key += getfcost( arc )/Math.max( 1, getCap( arc ) ); 
+      int bits = Float.floatToIntBits( (float)key );
+      bits ^= ( bits >> 31 ) & 0x7FFFFFFF;
+      order[arc] = ( (long)bits << 32 ) | arc;
+    }
+    Arrays.sort( order );
+    for ( int k=0; k < narcs; k++ )
+    {
+      int arc = (int)order[k];
+      int i = arc/n;
+      int j = arc%n;
+      int ecap = Math.min( r_supply[i], r_demand[j] );
+      if ( ecap == 0 ) continue;
+      solution.flow[arc] += ecap;
+      r_supply[i] -= ecap;
+      r_demand[j] -= ecap;
+    }
+
+    // Remove cycles, compute cost of the solution and set up the corresponding basis tree
+    cancelCycles( );
+    setBasicSolution();
+  }
+
 }
-  
@@ -0,0 +1,151 @@
+/**
+ * Binary min-heap on primitive arrays. Each entry consists of a key (double), a
+ * tie-breaking value (long; among equal keys the smallest tie comes first), an item
+ * (int) and a stamp (long). The stamp allows lazy invalidation: the user records with
+ * each entry the version of the data the key was computed from, and discards an entry
+ * popped from the heap if its stamp is outdated.
+ *
+ * @version 19/10/2026
+ */
+public class FCTPheap
+{
+  /** keys of the entries */
+  private double[] key;
+
+  /** tie-breaking values of the entries */
+  private long[] tie;
+
+  /** items of the entries */
+  private int[] item;
+
+  /** stamps of the entries */
+  private long[] stamp;
+
+  /** number of entries in the heap */
+  private int size = 0;
+
+  /** item of the entry removed by the last call to pop */
+  public int topItem;
+
+  /** stamp of the entry removed by the last call to pop */
+  public long topStamp;
+
+  /** key of the entry removed by the last call to pop */
+  public double topKey;
+
+  /**
+   * Constructor
+   *
+   * @param capacity initial capacity of the heap (it grows if required)
+   */
+  public FCTPheap( int capacity )
+  {
+    capacity = Math.max( capacity, 16 );
+    key = new double[capacity];
+    tie = new long[capacity];
+    item = new int[capacity];
+    stamp = new long[capacity];
+  }
+
+  /** Returns the number of entries in the heap */
+  public int size( )
+  {
+    return( size );
+  }
+
+  /** Removes all entries */
+  public void clear( )
+  {
+    size = 0;
+  }
+
+  /**
+   * Returns true if an entry with key k and tie-breaking value t would come before the
+   * smallest entry of the heap (false if the heap is empty)
+   */
+  public boolean precedesTop( double k, long t )
+  {
+    if ( size == 0 ) return( false );
+    if ( k != key[0] ) return( k < key[0] );
+    return( t < tie[0] );
+  }
+
+  /** Returns true if entry a comes before entry b */
+  private boolean less( int a, int b )
+  {
+    if ( key[a] != key[b] ) return( key[a] < key[b] );
+    return( tie[a] < tie[b] );
+  }
+
+  /** Swaps entries a and b */
+  private void swap( int a, int b )
+  {
+    double k = key[a]; key[a] = key[b]; key[b] = k;
+    long t = tie[a]; tie[a] = tie[b]; tie[b] = t;
+    int it = item[a]; item[a] = item[b]; item[b] = it;
+    long s = stamp[a]; stamp[a] = stamp[b]; stamp[b] = s;
+  }
+
+  /**
+   * Inserts an entry
+   *
+   * @param k  key
+   * @param t  tie-breaking value
+   * @param it item
+   * @param s  stamp
+   */
+  public void push( double k, long t, int it, long s )
+  {
+    if ( size == key.length )
+    {
+      int cap = 2*size;
+      key = java.util.Arrays.copyOf( key, cap );
+      tie = java.util.Arrays.copyOf( tie, cap );
+      item = java.util.Arrays.copyOf( item, cap );
+      stamp = java.util.Arrays.copyOf( stamp, cap );
+    }
+    int pos = size++;
+    key[pos] = k;
+    tie[pos] = t;
+    item[pos] = it;
+    stamp[pos] = s;
+    while ( pos > 0 )
+    {
+      int parent = ( pos-1 ) >> 1;
+      if ( !less( pos, parent ) ) break;
+      swap( pos, parent );
+      pos = parent;
+    }
+  }
+
+  /**
+   * Removes the smallest entry. Its item, stamp and key are stored in the fields
+   * topItem, topStamp and topKey.
+   *
+   * @return false if the heap is empty
+   */
+  public boolean pop( )
+  {
+    if ( size == 0 ) return( false );
+    topItem = item[0];
+    topStamp = stamp[0];
+    topKey = key[0];
+    size--;
+    if ( size > 0 )
+    {
+      swap( 0, size );
+      int pos = 0;
+      while ( true )
+      {
+        int child = 2*pos+1;
+        if ( child >= size ) break;
+        if ( ( child+1 < size ) && less( child+1, child ) ) child++;
+        if ( !less( child, pos ) ) break;
+        swap( pos, child );
+        pos = child;
+      }
+    }
+    return( true );
+  }
+
+}
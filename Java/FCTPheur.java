@@ -1,3 +1,5 @@
+import java.io.*;
+
 /**
  * Implements different (meta-) heuristics for the Fixed Charge Transportation Problem (FCTP)
  *
@@ -11,6 +13,17 @@ public class FCTPheur extends FCTPpop {
      */
     protected FCTPperfm perfMeter;
 
+    /**
+     * objective value of the solution stored in file FCTPparam.solFile (infinity if there is none)
+     */
+    protected double storedCost = Double.MAX_VALUE;
+
+    /**
+     * true once changeData has changed the data, so that file FCTPparam.solFile belongs to
+     * another instance and is no longer written
+     */
+    protected boolean dataChanged = false;
+
     /**
      * Constructor of class FCTPheur that reads data from file or passes the data to be used
      * to the class FCTPdata.
@@ -43,12 +56,28 @@ public class FCTPheur extends FCTPpop {
         perfMeter = new FCTPperfm();
     }
 
+    /**
+     * Constructor that takes an implicit cost model instead of cost arrays.
+     *
+     * @param mm  number of suppliers
+     * @param nn  number of customers
+     * @param s   integer array of mm supply quantities
+     * @param d   integer array of nn demand quantities
+     * @param cst cost model computing unit and fixed cost of each arc on demand
+     */
+    public FCTPheur(int mm, int nn, int[] s, int[] d, FCTPcost cst) {
+        super(mm, nn, s, d, cst);
+        perfMeter = new FCTPperfm();
+    }
+
     /**
      * Method for constructing a first feasible solution.
      */
     public void initialSolution() throws Exception {
         perfMeter.resetStats();
-        if (FCTPparam.greedy_meas <= 0) {
+        if (warmStart()) {
+            // start from the stored incumbent
+        } else if (FCTPparam.greedy_meas <= 0) {
             if (!LPheu()) throw new Exception("LP heuristic failed to give basic solution");
         } else {
             RandGreedy(0.4);
@@ -61,6 +90,128 @@ public class FCTPheur extends FCTPpop {
 
     }
 
+    /**
+     * Tries to set the current solution to the one stored in file FCTPparam.solFile or,
+     * if it is better, to the best solution of this instance in the solution store
+     * FCTPparam.storeDir.
+     *
+     * @return true if a stored solution is now the current basic solution
+     */
+    public boolean warmStart() {
+        boolean loaded = false;
+        if (FCTPparam.solFile != null && new File(FCTPparam.solFile).exists()) {
+            try {
+                loaded = loadSolution(FCTPparam.solFile);
+                if (loaded) storedCost = solution.totalCost;
+                else System.out.println("Warning: solution in " + FCTPparam.solFile + " is not feasible, ignored");
+            } catch (IOException exc) {
+                System.out.println("Warning: " + exc.getMessage());
+            }
+        }
+        if (FCTPparam.storeDir != null) {
+            try {
+                FCTPstore store = new FCTPstore(FCTPparam.storeDir);
+                long fp = fingerprint();
+                if (store.getCost(fp) < (loaded ? solution.totalCost - FCTPparam.tolval : Double.MAX_VALUE)) {
+                    // Read into a separate object, so that a failure leaves the current solution intact
+                    FCTPsol stored = new FCTPsol(m, n);
+                    if (store.get(fp, stored)) {
+                        if (setStoredSolution(stored)) loaded = true;
+                        else System.out.println("Warning: stored solution is not feasible, ignored");
+                    }
+                }
+            } catch (IOException exc) {
+                System.out.println("Warning: " + exc.getMessage());
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Writes the current solution to file FCTPparam.solFile if it is better than the
+     * solution stored there and the data have not been changed (see changeData), and adds
+     * it to the solution store FCTPparam.storeDir if it improves the best known solution
+     * of this instance (which the store identifies by the fingerprint of the present data).
+     */
+    public void storeSolution() {
+        try {
+            if (FCTPparam.solFile != null && !dataChanged && solution.totalCost < storedCost - FCTPparam.tolval) {
+                saveSolution(FCTPparam.solFile);
+                storedCost = solution.totalCost;
+            }
+            if (FCTPparam.storeDir != null) new FCTPstore(FCTPparam.storeDir).put(fingerprint(), solution);
+        } catch (IOException exc) {
+            System.out.println("Error: " + exc.getMessage());
+        }
+    }
+
+    /**
+     * Changes the data of the instance and repairs the current solution. Supplies and
+     * demands are changed by the given deltas; the total supply must still equal the
+     * total demand. The basic flows are first re-balanced along the paths of the current
+     * basis tree. If this gives negative flows, a basic solution close to the current one
+     * is constructed by method GreedyRepair. Note that the supply and demand arrays are
+     * changed in place, i.e. also in the caller's arrays if the data were not copied.
+     * Afterwards, storeSolution no longer writes to file FCTPparam.solFile, which holds a
+     * solution of the original instance.
+     *
+     * @param dSupply dSupply[i] is added to the supply of supplier i (null if no change)
+     * @param dDemand dDemand[j] is added to the demand of customer j (null if no change)
+     * @param arcs    arcs (i*n+j) whose costs change (null if no change)
+     * @param dTcost  dTcost[k] is added to the unit cost of arc arcs[k]
+     * @param dFcost  dFcost[k] is added to the fixed cost of arc arcs[k]
+     * @return false if the changed data would be infeasible (nothing is changed in this case)
+     */
+    public boolean changeData(int[] dSupply, int[] dDemand, int[] arcs, double[] dTcost, double[] dFcost) {
+        long balance = 0;
+        if (dSupply != null) for (int i = 0; i < m; i++) {
+            if (supply[i] + dSupply[i] < 0) return false;
+            balance += dSupply[i];
+        }
+        if (dDemand != null) for (int j = 0; j < n; j++) {
+            if (demand[j] + dDemand[j] < 0) return false;
+            balance -= dDemand[j];
+        }
+        if (balance != 0) return false;
+
+        resetCandidates();
+        if (arcs != null && arcs.length > 0) {
+            explicitCosts();
+            for (int k = 0; k < arcs.length; k++) {
+                if (dTcost != null) tcost[arcs[k]] += dTcost[k];
+                if (dFcost != null) fcost[arcs[k]] += dFcost[k];
+            }
+        }
+        if (dSupply != null) for (int i = 0; i < m; i++) supply[i] += dSupply[i];
+        if (dDemand != null) for (int j = 0; j < n; j++) demand[j] += dDemand[j];
+        // The don't-look bits and the greedy evaluations of the arcs refer to the old data
+        wakeAll();
+        if (gvals1 != null) initGreedyValues();
+        // The solution file and its cost refer to the old instance
+        dataChanged = true;
+        storedCost = Double.MAX_VALUE;
+
+        // Repair the current solution
+        if (!setTreeFlows()) GreedyRepair(solution.flow.clone());
+        return true;
+    }
+
+    /**
+     * Re-optimizes after a change of the data: the current solution is repaired by
+     * changeData, improved by a local search and then by the method specified by
+     * FCTPparam.impMethod. For small changes, the repaired solution is usually close
+     * to a good solution, so that a lower number of iterations (FCTPparam.max_no_imp)
+     * than for a cold start is sufficient.
+     *
+     * @return false if the changed data would be infeasible (nothing is done in this case)
+     */
+    public boolean reoptimize(int[] dSupply, int[] dDemand, int[] arcs, double[] dTcost, double[] dFcost) {
+        if (!changeData(dSupply, dDemand, arcs, dTcost, dFcost)) return false;
+        LocalSearch();
+        if (FCTPparam.impMethod != FCTPparam.NONE) improveSolution();
+        return true;
+    }
+
     /**
      * Improves solutions using a method specified by parameter FCTPparam.impMethod
      */
@@ -214,9 +365,16 @@ public class FCTPheur extends FCTPpop {
             perfMeter.updateStats(getLSiter(), solution.totalCost);
         }
 
+        // Keep the incumbent for later runs
+        storeSolution();
+
         // Give output on screen and possibly on file
         if (FCTPparam.whatOut != FCTPparam.NONE) {
             perfMeter.displayPerformance(false);
+            if (getArcPool() != null) System.out.println(getArcPool());
+            if (getSpecLS() != null) System.out.println(getSpecLS());
+            if (getSampleSize() != null) System.out.println(getSampleSize());
+            if (getLazyScan() != null) System.out.println(getLazyScan());
             if (FCTPparam.whatOut == FCTPparam.DETAILED) solution.printFlows();
         }
         try {
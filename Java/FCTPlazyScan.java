@@ -0,0 +1,307 @@
+import java.util.function.IntPredicate;
+
+/**
+ * Lazy best accept scan of the basic exchanges of the current solution. Instead of evaluating
+ * all non-basic arcs in the order of their index, an upper bound on the cost saving of each arc
+ * is computed in O(1) from node labels of the basis tree, and the arcs are evaluated in
+ * decreasing order of this bound until the bound falls below the best saving found. The result
+ * is the same arc as that of a full scan (among arcs of equal saving the one of smallest index).
+ *
+ * The bound is derived as follows. If arc (i,j) enters the basis with flow delta, the flow on
+ * the arcs of the cycle changes by +delta or -delta. An arc whose flow is increased costs at
+ * least its unit cost t per unit. An arc a whose flow x_a is decreased saves at most
+ * l_a = t_a + f_a/x_a per unit (including its fixed cost f_a if it is dropped). Which of the
+ * two applies to the arc between node w and its predecessor in the tree only depends on the
+ * type of w and on whether w lies on the path from i or from j to the apex of the cycle.
+ * Summing the respective values along the paths to the root gives labels Di(w) and Dj(w).
+ * With the apex a of the cycle (the nearest common ancestor of i and m+j, which is found in
+ * O(1) by means of an Euler tour of the tree and a sparse table), the saving is at most
+ * <pre>
+ *     D * max( 0, Di(i) - Di(a) + Dj(m+j) - Dj(a) - t_ij ) - f_ij,
+ * </pre>
+ * where D is the smallest of min(s_i,d_j) and the flows on the first arcs of the two paths
+ * (which are decreased). Non-basic arcs at their upper bound get an infinite bound.
+ *
+ * Only the batch arcs of largest bound are selected by a heap of bounded size and evaluated in
+ * the order of the bound, so that the arcs need not be sorted. If this does not prove the best
+ * arc found to be optimal, the remaining arcs are scanned in the order of their index, and only
+ * those are evaluated whose bound is not smaller than the best saving found so far.
+ *
+ * @version 19/10/2026
+ */
+public class FCTPlazyScan
+{
+  /** instance whose current solution is scanned */
+  private FCTPbas inst;
+
+  /** maximum number of arcs evaluated in the order of the bound */
+  public final int batch;
+
+  /** upper bound on the cost saving of each arc (computed by the last call to bestMove) */
+  private double[] bound;
+
+  /** labels Di of the nodes (path from the tail node of the entering arc) */
+  private double[] labI;
+
+  /** labels Dj of the nodes (path from the head node of the entering arc) */
+  private double[] labJ;
+
+  /** successors of node v in the tree: succ[succStart[v]], ..., succ[succStart[v+1]-1] */
+  private int[] succ, succStart;
+
+  /** number of successors of each node visited so far by the depth first traversal */
+  private int[] succCnt;
+
+  /** stack of the depth first traversal */
+  private int[] stack;
+
+  /** depth of each node in the tree */
+  private int[] depth;
+
+  /** Euler tour of the tree (sequence of the nodes visited by the depth first traversal) */
+  private int[] euler;
+
+  /** position of the first occurrence of each node in the Euler tour */
+  private int[] firstPos;
+
+  /** sparse table for finding the node of smallest depth in a section of the Euler tour */
+  private int[][] low;
+
+  /** arcs of the batch in decreasing order of the bound */
+  private int[] arcs;
+
+  /** heap used to select the arcs of a batch */
+  private FCTPheap heap;
+
+  /** number of scans (calls of bestMove) */
+  public long numScans = 0;
+
+  /** number of non-basic arcs considered by the scans */
+  public long numArcs = 0;
+
+  /** number of arcs evaluated */
+  public long numEvals = 0;
+
+  /**
+   * Constructor
+   *
+   * @param inst  instance whose current solution is scanned
+   * @param batch maximum number of arcs evaluated in the order of the bound
+   */
+  public FCTPlazyScan( FCTPbas inst, int batch )
+  {
+    this.inst = inst;
+    this.batch = Math.max( 1, Math.min( batch, inst.narcs ) );
+    int nnodes = inst.m + inst.n;
+    bound = new double[inst.narcs];
+    labI = new double[nnodes];
+    labJ = new double[nnodes];
+    succ = new int[nnodes];
+    succStart = new int[nnodes+1];
+    succCnt = new int[nnodes];
+    stack = new int[nnodes];
+    depth = new int[nnodes];
+    euler = new int[2*nnodes];
+    firstPos = new int[nnodes];
+    int levels = 32 - Integer.numberOfLeadingZeros( 2*nnodes );
+    low = new int[levels][2*nnodes];
+    arcs = new int[this.batch];
+    heap = new FCTPheap( this.batch+1 );
+  }
+
+  /**
+   * Determines the non-basic arc of largest cost saving.
+   *
+   * @param consider  only non-basic arcs for which consider.test( arc ) is true are evaluated
+   *                  (all if consider is null)
+   * @param minSaving only arcs with cost saving larger than minSaving are returned
+   *
+   * @return the arc of largest cost saving (of smallest index among arcs of equal saving), or -1
+   *         if no arc has a cost saving larger than minSaving
+   */
+  public int bestMove( IntPredicate consider, double minSaving )
+  {
+    FCTPsol sol = inst.solution;
+    computeBounds( );
+    numScans++;
+    double best = minSaving;
+    int bestArc = -1;
+
+    // Select the batch arcs of largest bound (among arcs of equal bound those of smallest index)
+    heap.clear( );
+    for ( int arc=0; arc < inst.narcs; arc++ )
+    {
+      if ( ( sol.arc_stat[arc] == inst.BASIC ) || ( ( consider != null ) && ! consider.test( arc ) ) ) continue;
+      numArcs++;
+      double b = bound[arc];
+      if ( b <= minSaving ) continue;
+      if ( heap.size( ) < batch ) 
+        heap.push( b, -arc, arc, 0 );
+      else if ( ! heap.precedesTop( b, -arc ) )
+      {
+        heap.pop( );
+        heap.push( b, -arc, arc, 0 );
+      }
+    }
+    int len = heap.size( );
+    for ( int k=len-1; heap.pop( ); k-- ) arcs[k] = heap.topItem;
+
+    // Evaluate them in decreasing order of the bound until the bound does not allow a better arc anymore
+    for ( int k=0; k < len; k++ )
+    {
+      int arc = arcs[k];
+      double b = bound[arc];
+      if ( ( b < best ) || ( ( b == best ) && ( bestArc >= 0 ) && ( arc > bestArc ) ) ) return( bestArc );
+      double saving = inst.getCostSav( arc );
+      numEvals++;
+      if ( ( saving > best ) || ( ( saving == best ) && ( bestArc >= 0 ) && ( arc < bestArc ) ) )
+      {
+        best = saving;
+        bestArc = arc;
+      }
+    }
+    if ( len < batch ) return( bestArc );
+
+    // Evaluate the other arcs whose bound allows a better arc than the best one found 
+    double cutB = bound[arcs[len-1]]; // bound and arc of the last arc of the batch
+    int cutArc = arcs[len-1];
+    for ( int arc=0; arc < inst.narcs; arc++ )
+    {
+      if ( ( sol.arc_stat[arc] == inst.BASIC ) || ( ( consider != null ) && ! consider.test( arc ) ) ) continue;
+      double b = bound[arc];
+      if ( ( b < best ) || ( ( b == best ) && ( ( bestArc < 0 ) || ( arc > bestArc ) ) ) ) continue;
+      if ( ( b > cutB ) || ( ( b == cutB ) && ( arc <= cutArc ) ) ) continue; // in the batch
+      double saving = inst.getCostSav( arc );
+      numEvals++;
+      if ( ( saving > best ) || ( ( saving == best ) && ( arc < bestArc ) ) )
+      {
+        best = saving;
+        bestArc = arc;
+      }
+    }
+    return( bestArc );
+  }
+
+  /** Computes the labels of the nodes and the bounds on the cost saving of the non-basic arcs */
+  private void computeBounds( )
+  {
+    FCTPsol sol = inst.solution;
+    int m = inst.m;
+    int n = inst.n;
+    int nnodes = m+n;
+    // Lists of the successors of each node in the tree
+    int root = 0;
+    java.util.Arrays.fill( succStart, 0 );
+    for ( int node=0; node < nnodes; node++ ) 
+    {
+      if ( sol.tree_p[node] < 0 ) root = node; else succStart[sol.tree_p[node]+1]++;
+    }
+    for ( int node=0; node < nnodes; node++ ) succStart[node+1] += succStart[node];
+    for ( int node=0; node < nnodes; node++ ) if ( node != root ) 
+    {
+      int pred = sol.tree_p[node];
+      succ[succStart[pred]+succCnt[pred]++] = node;
+    }
+    // Depth first traversal: labels, depth and Euler tour of the tree
+    boolean valid = true;
+    int len = 0;
+    int top = 0;
+    stack[0] = root;
+    labI[root] = labJ[root] = 0.0;
+    depth[root] = 0;
+    succCnt[root] = 0;
+    firstPos[root] = 0;
+    euler[len++] = root;
+    while ( top >= 0 )
+    {
+      int node = stack[top];
+      if ( succCnt[node] == succStart[node+1]-succStart[node] ) 
+      {
+        top--;
+        if ( top >= 0 ) euler[len++] = stack[top];
+        continue;
+      }
+      int next = succ[succStart[node]+succCnt[node]++];
+      int arc = ( next < m ) ? next*n + node - m : node*n + next - m;
+      double t = inst.gettcost( arc );
+      double f = inst.getfcost( arc );
+      int x = sol.flow[arc];
+      if ( ( f < 0 ) && ( x == 0 ) ) valid = false; // increasing the flow may then save cost
+      double l = ( x > 0 ) ? t + Math.max( 0.0, f )/x : t;
+      labI[next] = labI[node] + ( ( next < m ) ? l : -t );
+      labJ[next] = labJ[node] + ( ( next < m ) ? -t : l );
+      depth[next] = depth[node]+1;
+      succCnt[next] = 0;
+      firstPos[next] = len;
+      euler[len++] = next;
+      stack[++top] = next;
+    }
+    for ( int node=0; node < nnodes; node++ ) succCnt[node] = 0;
+    // Sparse table: low[k][p] is the node of smallest depth among euler[p], ..., euler[p+2^k-1]
+    System.arraycopy( euler, 0, low[0], 0, len );
+    for ( int k=1; ( 1 << k ) <= len; k++ )
+    {
+      int h = 1 << (k-1);
+      for ( int p=0; p + 2*h <= len; p++ )
+      {
+        int a = low[k-1][p];
+        int b = low[k-1][p+h];
+        low[k][p] = ( depth[a] <= depth[b] ) ? a : b;
+      }
+    }
+    // Bounds on the cost saving
+    for ( int arc=0; arc < inst.narcs; arc++ )
+    {
+      if ( sol.arc_stat[arc] == inst.BASIC ) continue;
+      if ( ! valid || ( sol.arc_stat[arc] != inst.NONBAS0 ) )
+      {
+        bound[arc] = Double.POSITIVE_INFINITY;
+        continue;
+      }
+      int i = arc/n;
+      int j = m + arc%n;
+      int apex = apex( i, j );
+      double t = inst.gettcost( arc );
+      double f = inst.getfcost( arc );
+      // The flow change is limited by the flows on the first arcs of the two paths (which decrease)
+      double delta = inst.getCap( arc );
+      if ( i != apex ) delta = Math.min( delta, sol.flow[i*n + sol.tree_p[i] - m] );
+      if ( j != apex ) delta = Math.min( delta, sol.flow[sol.tree_p[j]*n + j - m] );
+      double x = labI[i] - labI[apex] + labJ[j] - labJ[apex] - t;
+      // Allow for the rounding errors of the labels
+      double eps = 1.0E-9*( delta*( Math.abs( labI[i] ) + Math.abs( labI[apex] ) + Math.abs( labJ[j] ) 
+                   + Math.abs( labJ[apex] ) + Math.abs( t ) ) + Math.abs( f ) );
+      bound[arc] = Math.max( 0.0, delta*Math.max( 0.0, x ) - f ) + eps;
+    }
+  }
+
+  /** Returns the apex of the cycle closed by an arc between nodes i and j, that is their nearest common ancestor */
+  private int apex( int i, int j )
+  {
+    int p = firstPos[i];
+    int q = firstPos[j];
+    if ( p > q ) 
+    {
+      int h = p; p = q; q = h;
+    }
+    int k = 31 - Integer.numberOfLeadingZeros( q-p+1 );
+    int a = low[k][p];
+    int b = low[k][q-(1 << k)+1];
+    return( ( depth[a] <= depth[b] ) ? a : b );
+  }
+
+  /** Resets the counters */
+  public void resetCounters( )
+  {
+    numScans = numArcs = numEvals = 0;
+  }
+
+  /** Returns a summary of the counters */
+  public String toString( )
+  {
+    double frac = ( numArcs > 0 ) ? 100.0*numEvals/numArcs : 0.0;
+    return( String.format( "Lazy best accept: %d scans, %d of %d arcs evaluated (%.1f%%)",
+                           numScans, numEvals, numArcs, frac ) );
+  }
+
+}
@@ -1,6 +1,7 @@
 import java.io.FileWriter;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
 
 /**
  * Local search methods for the Fixed Charge Transportation Problem (FCTP)
@@ -12,12 +13,26 @@ public class FCTPls extends FCTPgreedy
 {
   /** number of iterations performed by last execution of a local search method listed here */
   protected int iterCount;
-  protected int[] edge_counts = new int[narcs];
-  protected int[] best_edge_counts = new int[narcs];
-  protected double[] counts = new double[narcs];
-  protected double[] sol_avgs = new double[narcs];
   protected double[] greedy_values = null;
   public FileWriter fileWriter;
+
+  /** candidate arcs of the granular neighbourhood (see getCandList) */
+  private FCTPcandList candList = null;
+
+  /** number of neighbourhood evaluations since the candidate arcs were determined */
+  private int candAge = 0;
+
+  /** active pool of promising non-basic arcs (see getArcPool) */
+  private FCTParcPool arcPool = null;
+
+  /** speculative multi-threaded first accept local search (see LS_first_acc) */
+  private FCTPspecLS specLS = null;
+
+  /** lazy best accept scan ordered by bounds on the cost saving (see LS_best_acc) */
+  private FCTPlazyScan lazyScan = null;
+
+  /** long-term frequency memory of the arcs used by local optima (see getFreqMem) */
+  private FCTPfreqMem freqMem = null;
  
   /**
    * Constructor 
@@ -49,6 +64,20 @@ public class FCTPls extends FCTPgreedy
     super( mm, nn, s, d, tc, fc, copyDat );  
   }    
 
+  /**
+   * Constructor that takes an implicit cost model instead of cost arrays
+   * 
+   *  @param mm       number of suppliers
+   *  @param nn       number of customers
+   *  @param s        integer array of mm supply quantities
+   *  @param d        integer array of nn demand quantities
+   *  @param cst      cost model computing unit and fixed cost of each arc on demand
+   */
+  public FCTPls( int mm, int nn, int[] s, int[] d, FCTPcost cst ) 
+  {
+    super( mm, nn, s, d, cst );  
+  }    
+
   /**
    *  Return number of iterations performed by one the local search method implemented here
    */
@@ -56,36 +85,182 @@ public class FCTPls extends FCTPgreedy
   {
     return ( iterCount );
   }
-    
+
   /**
-   *  Best accept local search (using basic exchanges to create neighbouring solutons)
+   *  Returns the candidate arcs of the granular neighbourhood to be used by the next neighbourhood 
+   *  evaluation, or null if all arcs are to be evaluated (FCTPparam.ls_gran_k = 0). Every 
+   *  FCTPparam.ls_gran_rebuild calls, the candidate arcs are determined anew from the reduced 
+   *  costs of the current solution.
    */
-  public void LS_best_acc()
-  {  
-    boolean improve=false;  
-    int iter = 0; // internal iteration counter
-    do
+  protected FCTPcandList getCandList( )
+  {
+    if ( FCTPparam.ls_gran_k <= 0 ) return( null );
+    if ( ( candList == null ) || ( candList.k != FCTPparam.ls_gran_k ) )
+    {
+      candList = new FCTPcandList( this, FCTPparam.ls_gran_k, solution );
+      candAge = 0;
+    }
+    else if ( ++candAge >= FCTPparam.ls_gran_rebuild )
     {
-      double bestSav = FCTPparam.tolval;  
-      improve = false;
-      for ( int arc=0; arc < narcs; arc++ ) 
+      candList.rebuild( solution );
+      candAge = 0;
+    }
+    return( candList );
+  }
+
+  /**
+   *  Returns the active arc pool used by the local search methods, or null if no pool is used
+   *  (FCTPparam.arc_pool = 0)
+   */
+  public FCTParcPool getArcPool( )
+  {
+    if ( FCTPparam.arc_pool <= 0 ) return( null );
+    if ( ( arcPool == null ) || ( arcPool.capacity != Math.min( FCTPparam.arc_pool, narcs ) ) 
+         || ( arcPool.maxAge != Math.max( 1, FCTPparam.arc_pool_age ) ) )
+      arcPool = new FCTParcPool( this, FCTPparam.arc_pool, FCTPparam.arc_pool_age );
+    return( arcPool );
+  }
+
+  /**
+   *  Local search that only evaluates the arcs of the active arc pool between full pricings of
+   *  all arcs. Within the pool, either the first or the best improving basic exchange is made. 
+   *  All arcs are priced anew if the pool contains no improving arc anymore or is stale. The 
+   *  search stops if a full pricing finds no improving arc.
+   *  
+   *  @param pool  the active arc pool
+   *  @param first true if the first improving basic exchange within the pool is made
+   */
+  private void LS_pool( FCTParcPool pool, boolean first )
+  {
+    int iter = 0;
+    while ( pool.price( ) )
+    {
+      boolean improve;
+      do
       {
-        if ( solution.arc_stat[arc] != BASIC ) 
+        double bestSav = FCTPparam.tolval;
+        improve = false;
+        for ( int k=0; k < pool.len; k++ ) 
         {
+          int arc = pool.arcs[k];
+          if ( solution.arc_stat[arc] == BASIC ) continue;
+          pool.numEvals++;
           double saving = getCostSav( arc );
           if ( saving > bestSav )
           {
-            bestSav = saving;
             improve = true;
             RememberMove( );
-          }    
+            if ( first ) 
+            {
+              DoMove( );
+              pool.pivoted( );
+              iter++;
+            }
+            else 
+              bestSav = saving;
+          }
         }
-      }    
+        if ( improve && ! first )
+        {
+          DoMove( );
+          pool.pivoted( );
+          iter++;
+        }
+      } while ( improve && ! pool.isStale( ) );
+    }
+    iterCount = iter;
+  }
+
+  /**
+   *  Returns the speculative first accept engine if it has been used, otherwise null 
+   */
+  public FCTPspecLS getSpecLS( )
+  {
+    return( specLS );
+  }
+
+  /**
+   *  Returns the lazy best accept scan used by LS_best_acc, or null if all arcs are evaluated
+   *  (FCTPparam.lazy_best = 0)
+   */
+  public FCTPlazyScan getLazyScan( )
+  {
+    if ( FCTPparam.lazy_best <= 0 ) return( null );
+    if ( ( lazyScan == null ) || ( lazyScan.batch != Math.min( FCTPparam.lazy_best, narcs ) ) )
+      lazyScan = new FCTPlazyScan( this, FCTPparam.lazy_best );
+    return( lazyScan );
+  }
+
+  /**
+   *  Returns the long-term frequency memory, in which ILS and the evaluation based IRNLS record
+   *  their local optima. PEheur.intensify_diversify derives the arc evaluations for 
+   *  Kicksolution_greedy from it. It is created anew if the parameters freq_decay or 
+   *  freq_cost_weight have been changed.
+   */
+  public FCTPfreqMem getFreqMem( )
+  {
+    boolean costWeighted = ( FCTPparam.freq_cost_weight > 0 );
+    if ( ( freqMem == null ) || ( freqMem.decay != FCTPparam.freq_decay ) || ( freqMem.costWeighted != costWeighted ) )
+      freqMem = new FCTPfreqMem( this, FCTPparam.freq_decay, costWeighted );
+    return( freqMem );
+  }
+
+  /**
+   *  Makes the arcs used by an elite solution permanent candidate arcs of the granular neighbourhood
+   *  (if used)
+   */
+  protected void addEliteArcs( FCTPsol sol )
+  {
+    if ( candList != null ) candList.addElite( sol );
+  }
+    
+  /**
+   *  Best accept local search (using basic exchanges to create neighbouring solutons). If a
+   *  granular neighbourhood is used (see getCandList), only candidate arcs are evaluated as long 
+   *  as one of them is improving; then all arcs are checked once before the search stops.
+   *  If an active arc pool is used (see getArcPool), the search is done by LS_pool instead.
+   *  On large instances, the moves are evaluated by several threads (see FCTPbas.bestMove),
+   *  unless the lazy scan (see getLazyScan) is used, which evaluates the arcs in the order of 
+   *  bounds on their cost saving until no better move is possible.
+   */
+  public void LS_best_acc()
+  {  
+    FCTParcPool pool = getArcPool( );
+    if ( pool != null )
+    {
+      LS_pool( pool, false );
+      return;
+    }
+    FCTPcandList cl = getCandList( );
+    FCTPlazyScan lazy = getLazyScan( );
+    boolean full = ( cl == null ); // true if all arcs are evaluated
+    boolean improve=false;  
+    int iter = 0; // internal iteration counter
+    do
+    {
+      // Find the best improving move (possibly evaluated by several threads, see bestMove, or 
+      // in the order of bounds on the saving, see FCTPlazyScan) 
+      int bestArc = ( lazy != null ) ? lazy.bestMove( full ? null : cl::contains, FCTPparam.tolval )
+                    : bestMove( full ? null : cl::contains, ( arc, saving, out_arc ) -> saving, FCTPparam.tolval );
+      improve = ( bestArc >= 0 );
       if ( improve )
       {
         iter++;
+        getCostSav( bestArc );
+        RememberMove( );
         DoMove( );
+        if ( cl != null ) 
+        {
+          cl.add( bestArc );
+          full = false;
+        }  
       }    
+      else if ( ! full ) 
+      {
+        // Verify that candidate local optimum is a local optimum
+        full = true;
+        improve = true;
+      }
     } while ( improve );    
     iterCount = iter;
   }
@@ -93,18 +268,63 @@ public class FCTPls extends FCTPgreedy
 
 
   /**
-   *  First accept local search (using basic exchanges to create neighbouring solutons)
+   *  First accept local search (using basic exchanges to create neighbouring solutons).
+   *  If FCTPparam.dont_look > 0, don't-look bits are used: if the search is applied to a 
+   *  solution obtained from the local optimum of the previous call by some basic exchanges 
+   *  (e.g. a kick), first only arcs incident to nodes touched by these exchanges are examined 
+   *  (see FCTPbas.wakeUp). Since an exchange also changes the savings of other arcs, all arcs 
+   *  are then checked once before the search stops, so that it returns a local optimum.
+   *  If a granular neighbourhood is used (see getCandList), only candidate arcs are evaluated 
+   *  as long as one of them is improving; then all arcs are checked once before the search stops.
+   *  If an active arc pool is used (see getArcPool), the search is done by LS_pool instead.
+   *  If FCTPparam.spec_ls > 0 and parallelScan() is true, the search is done by several threads
+   *  (see FCTPspecLS). 
    */
   public void LS_first_acc()
   {  
+    FCTParcPool pool = getArcPool( );
+    if ( pool != null )
+    {
+      LS_pool( pool, true );
+      return;
+    }
+    FCTPcandList cl = getCandList( );
+    boolean full = ( cl == null ); // true if all arcs are evaluated
+    boolean dlb = wakeUp( );       // true if some nodes are asleep
+    if ( ( FCTPparam.spec_ls > 0 ) && parallelScan( ) )
+    {
+      if ( ( specLS == null ) || ( specLS.nthreads != FCTPparam.numThreads() ) ) 
+        specLS = new FCTPspecLS( this, FCTPparam.numThreads() );
+      int iter = 1;
+      boolean restricted = dlb; // true if only awake arcs are evaluated
+      while ( true )
+      {
+        IntPredicate consider = restricted ? this::isAwake : arc -> true;
+        if ( full ) 
+          iter += specLS.descend( consider, Integer.MAX_VALUE, null );
+        else
+          iter += specLS.descend( arc -> consider.test( arc ) && cl.contains( arc ), Integer.MAX_VALUE, null );
+        if ( full && ! restricted ) break;
+        // Verify that candidate local optimum is a local optimum
+        int moves = specLS.descend( arc -> true, 1, ( cl == null ) ? null : cl::add );
+        if ( moves == 0 ) break;
+        iter += moves;
+        restricted = false;
+      }
+      iterCount = iter;
+      sleepAll( );
+      return;
+    }
+    boolean restricted = dlb; // true if only awake arcs are evaluated
     int cnt = 0;
-    int arc = ThreadLocalRandom.current().nextInt(0, narcs-1);;
+    int arc = randgen.nextInt( narcs-1 );
     int iter = 1;
     do
     {
       arc %= narcs;  
       cnt++;
-      if ( solution.arc_stat[arc] != BASIC )
+      if ( ( solution.arc_stat[arc] != BASIC ) && ( full || cl.contains( arc ) ) 
+           && ( ! restricted || isAwake( arc ) ) )
       {
         double saving = getCostSav( arc );
         if ( saving > FCTPparam.tolval )
@@ -113,17 +333,87 @@ public class FCTPls extends FCTPgreedy
           DoMove( );
           cnt = 0;
           iter++;
+          if ( cl != null ) 
+          {
+            cl.add( arc );
+            full = false;
+          }
         }
       }
       arc++;
+      if ( ( cnt == narcs ) && ( restricted || ! full ) ) 
+      {
+        // Verify that candidate local optimum is a local optimum
+        full = true;
+        restricted = false;
+        cnt = 0;
+      }
     } while ( cnt < narcs );
     iterCount = iter; 
+    sleepAll( );
+  }
+
+  /**
+   *  Block accept local search similar to the partial pricing of network simplex codes: the arcs 
+   *  are scanned cyclically in blocks of about sqrt(narcs) non-basic arcs. After each block, the 
+   *  best improving move found in the block (if any) is applied and the scan continues with the 
+   *  next block. The search stops if no improving move was found in all arcs scanned since the 
+   *  last move. A granular neighbourhood is used as in LS_first_acc.
+   */
+  public void LS_block_acc()
+  {
+    FCTPcandList cl = getCandList( );
+    boolean full = ( cl == null ); // true if all arcs are evaluated
+    int bsize = (int)Math.ceil( Math.sqrt( narcs ) );
+    int cnt = 0; // number of arcs scanned since the last move
+    int arc = randgen.nextInt( narcs );
+    int iter = 0;
+    while ( cnt < narcs )
+    {
+      // Price out a block of arcs
+      double bestSav = FCTPparam.tolval;
+      int bestArc = -1;
+      for ( int evals=0; ( evals < bsize ) && ( cnt < narcs ); cnt++ )
+      {
+        if ( ( solution.arc_stat[arc] != BASIC ) && ( full || cl.contains( arc ) ) )
+        {
+          evals++;
+          double saving = getCostSav( arc );
+          if ( saving > bestSav )
+          {
+            bestSav = saving;
+            bestArc = arc;
+            RememberMove( );
+          }
+        }
+        if ( ++arc == narcs ) arc = 0;
+      }
+      if ( bestArc >= 0 )
+      {
+        iter++;
+        DoMove( );
+        cnt = 0;
+        if ( cl != null ) 
+        {
+          cl.add( bestArc );
+          full = false;
+        }  
+      }
+      else if ( ( cnt == narcs ) && ( ! full ) )
+      {
+        // Verify that candidate local optimum is a local optimum
+        full = true;
+        cnt = 0;
+      }
+    }
+    iterCount = iter;
   }
 
   /**
    *  Performs a local search on the current solution using basic exchanges to create neighbouring solutions.
    *  If FCTPparam.ls_type = BEST_ACCEPT, a best accept strategy is followed.
    *  If FCTPparam.ls_type = FIRST_ACCEPT, a first accept strategy is followed.
+   *  If FCTPparam.ls_type = BLOCK_ACCEPT, the best move within blocks of arcs is applied.
    */
   public void LocalSearch( )
   {
@@ -131,6 +421,7 @@ public class FCTPls extends FCTPgreedy
     {
       case FCTPparam.FIRST_ACCEPT: LS_first_acc(); break;
       case FCTPparam.BEST_ACCEPT: LS_best_acc( ); break;
+      case FCTPparam.BLOCK_ACCEPT: LS_block_acc( ); break;
     }
   }
 
@@ -227,6 +518,7 @@ public class FCTPls extends FCTPgreedy
       if ( solution.totalCost < best_sol.totalCost )
       {
         best_sol.Overwrite( solution );
+        addEliteArcs( best_sol );
         num_fail = 0;
       }
       else 
@@ -294,13 +586,7 @@ public class FCTPls extends FCTPgreedy
 
       // Improve solution using local search
       LocalSearch( );
-
-      for (int arc = 0; arc < narcs; arc++) {
-        if (solution.flow[arc] > 0) {
-          edge_counts[arc]++;
-        }
-      }
-
+      getFreqMem( ).add( solution );
 
       // The solution obtained after local search is "accepted", that is will
       // take the role of the "current" solution", if it improves this solution.
@@ -310,6 +596,7 @@ public class FCTPls extends FCTPgreedy
       if ( solution.totalCost < best_sol.totalCost )
       {
         best_sol.Overwrite( solution );
+        addEliteArcs( best_sol );
         num_fail = 0;
       }
       else
@@ -623,7 +910,8 @@ public class FCTPls extends FCTPgreedy
    * Application of a a single record to record travel that makes basic exchanges and either
    * applies the first improving one or the best accepted one. Non-basic arcs are scanned by 
    * looping over suppliers and customers; best-moves for non-basic arcs adjacent to the 
-   * current supplier node are searched.
+   * current supplier node are searched. If a granular neighbourhood is used (see getCandList),
+   * only candidate arcs are evaluated (the local search that follows the travels checks all arcs).
    * 
    * @param  record - best objective function value found so far
    *	    
@@ -631,6 +919,7 @@ public class FCTPls extends FCTPgreedy
    */
   protected boolean RTR_travel( double record )
   { 
+    FCTPcandList cl = getCandList( );
     int supplier[] = RandOrder(m);
     int customer[] = RandOrder(n);
     boolean move_made = false;
@@ -642,7 +931,7 @@ public class FCTPls extends FCTPgreedy
       for ( int j = 0; j < n; j++ ) 
       {
         int arc = supplier[i]*n + customer[j];
-        if ( solution.arc_stat[arc] != BASIC ) // arc is non-basic
+        if ( ( solution.arc_stat[arc] != BASIC ) && ( ( cl == null ) || cl.contains( arc ) ) ) // arc is non-basic
         {
           double saving = getCostSav( arc ); 
           if ( saving > bestsav ) 
@@ -666,6 +955,7 @@ public class FCTPls extends FCTPgreedy
 
   protected void RTR_move( double record )
   {
+    FCTPcandList cl = getCandList( );
     int supplier[] = RandOrder(m);
     int customer[] = RandOrder(n);
     double deviat = FCTPparam.RTR_percent*record;
@@ -676,7 +966,7 @@ public class FCTPls extends FCTPgreedy
       for ( int j = 0; j < n; j++ )
       {
         int arc = supplier[i]*n + customer[j];
-        if ( solution.arc_stat[arc] != BASIC ) // arc is non-basic
+        if ( ( solution.arc_stat[arc] != BASIC ) && ( ( cl == null ) || cl.contains( arc ) ) ) // arc is non-basic
         {
           double saving = getCostSav( arc );
           if ( saving > bestsav )
@@ -736,6 +1026,7 @@ public class FCTPls extends FCTPgreedy
       {
         num_fail = 0;
         best_sol.Overwrite( solution );
+        addEliteArcs( best_sol );
       }
       // Give some output if screen is on
       if ( screen_flag ) 
@@ -855,6 +1146,7 @@ public class FCTPls extends FCTPgreedy
       fcost[arc] += lamb_f;
       tcost[arc] += lamb_c;
     }
+    wakeAll( );
     
   }
 
@@ -863,6 +1155,9 @@ public class FCTPls extends FCTPgreedy
    */
   public void GLS(  )
   {
+    // Penalties are added to the cost arrays, so an implicit cost model has to be expanded
+    explicitCosts( );
+
     // Obtain a first local optimum by calling the local search procedure
     LocalSearch( ); 
     
@@ -926,6 +1221,7 @@ public class FCTPls extends FCTPgreedy
         // Reset the penalties if no improve found after max_iter subsequent iterations
         System.arraycopy( fc, 0, fcost, 0, narcs );
         System.arraycopy( tc, 0, tcost, 0, narcs );
+        wakeAll( );
         Arrays.fill( rho, 0 );
         solution.ComputeCost( fcost, tcost );
         LocalSearch();
@@ -937,6 +1233,7 @@ public class FCTPls extends FCTPgreedy
     solution.Overwrite( best_sol ); 
     System.arraycopy( fc, 0, fcost, 0, narcs );
     System.arraycopy( tc, 0, tcost, 0, narcs );
+    wakeAll( );
     iterCount = iter;
     
   }  
@@ -1049,7 +1346,9 @@ public class FCTPls extends FCTPgreedy
   
     
   /**
-   * Basic tabu search procedure for solving the FCTP
+   * Basic tabu search procedure for solving the FCTP. If a granular neighbourhood is used (see
+   * getCandList), only moves introducing candidate arcs are evaluated unless none of them is 
+   * admissible. On large instances, the moves are evaluated by several threads (see bestMove).
    */
   public void TS()
   {
@@ -1075,30 +1374,35 @@ public class FCTPls extends FCTPgreedy
 
     int itr = 0;
     int iter= 0;    
+    LongAdder num_adm = new LongAdder( ); // number of admissible moves (for the screen output)
     do {
       iter++;
-      double bstsav = -Double.MAX_VALUE;
-      int num_moves = 0;
       int inArc = -1;
-      int outArc = -1; 
-      for ( int arcIn = 0; arcIn < narcs; arcIn++ ) if ( solution.arc_stat[arcIn] != BASIC )
+      FCTPcandList cl = getCandList( );
+      boolean full = ( cl == null ); // true if all arcs are evaluated
+      num_adm.reset( );
+      while ( true )
       {
-        double cstsav = getCostSav( arcIn );
-        int arcOut = getLeavingArc();
-        boolean tabu = ( ( tlist[arcIn] > iter ) || ( tlist[arcOut] > iter ) );
-        boolean admissible = ( !tabu || ( cur_obj - cstsav + FCTPparam.tolval < bestSol.totalCost ) );
-        if ( !admissible ) // Apply regional aspiration
-          admissible = ( cur_obj - cstsav + FCTPparam.tolval < Math.min( zval[arcIn], zval[arcOut] ) );
-        if ( ( admissible) && ( cstsav > bstsav ) )
+        // Find the best admissible move (possibly evaluated by several threads, see bestMove) 
+        final int it = iter;
+        final double obj = cur_obj;
+        inArc = bestMove( full ? null : cl::contains, ( arcIn, cstsav, arcOut ) -> 
         {
-          bstsav = cstsav;
-          inArc = arcIn;
-          outArc = arcOut;
-          num_moves++;
-          RememberMove();
-        }
-      }
-      if ( num_moves == 0 ) break; // no move is admissable
+          boolean tabu = ( ( tlist[arcIn] > it ) || ( tlist[arcOut] > it ) );
+          boolean admissible = ( !tabu || ( obj - cstsav + FCTPparam.tolval < bestSol.totalCost ) );
+          if ( !admissible ) // Apply regional aspiration
+            admissible = ( obj - cstsav + FCTPparam.tolval < Math.min( zval[arcIn], zval[arcOut] ) );
+          if ( ! admissible ) return( -Double.MAX_VALUE );
+          if ( FCTPparam.screen_on ) num_adm.increment( );
+          return( cstsav );
+        }, -Double.MAX_VALUE );
+        if ( ( inArc >= 0 ) || full ) break;
+        full = true; // no admissible move introduces a candidate arc
+      }  
+      if ( inArc < 0 ) break; // no move is admissable
+      double bstsav = getCostSav( inArc );
+      int outArc = getLeavingArc();
+      RememberMove();
       zval[inArc] = cur_obj;
       zval[outArc] = cur_obj;
       DoMove();
@@ -1112,10 +1416,11 @@ public class FCTPls extends FCTPgreedy
       if ( bestSol.totalCost > cur_obj )
       {
         bestSol.Overwrite( solution );
+        addEliteArcs( bestSol );
         itr = 0;
       }
       if ( FCTPparam.screen_on )  
-        System.out.format("%4d  %11d  %10.2f  %11.2f%n",iter,num_moves,cur_obj,bestSol.totalCost);
+        System.out.format("%4d  %11d  %10.2f  %11.2f%n",iter,num_adm.sum(),cur_obj,bestSol.totalCost);
     } while ( itr < FCTPparam.max_no_imp );
     
     // Reset the library's solution
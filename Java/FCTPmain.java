@@ -23,7 +23,7 @@ public class FCTPmain
     //System.out.println("  Heuristics for the Fixed-Charge Transportation Problem  ");
     //System.out.println("----------------------------------------------------------");
     if ( args.length == 0 ) {
-      System.out.println("Usage: Input_file <Batch - Output file >");
+      System.out.println("Usage: Input_file <Batch - Output file > <Solution file>");
       System.out.println("----------------------------------------------------------");
       return;
     } 
@@ -32,6 +32,7 @@ public class FCTPmain
     FCTPparam.setParam( FCTPparam.INPUTFILE, args[0] );
     if ( args.length > 1 ) FCTPparam.setParam( FCTPparam.OUTPUTFILE, args[1] );
     else { FCTPparam.setParam(FCTPparam.OUTPUTFILE, "beat_buson_final/" + args[0].split("/")[1] + ".txt"); }
+    if ( args.length > 2 ) FCTPparam.setParam( FCTPparam.SOLUTIONFILE, args[2] );
     FCTPparam.setParam( FCTPparam.INITFILE, "FCTPheur.ini" );
     
     try 
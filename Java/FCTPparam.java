@@ -75,6 +75,54 @@ public class FCTPparam
   
   /** Constant: Identifier for parameter "callbck" */
   public static final int CALLBCK = 21;
+
+  /** Constant: Identifier for parameter "gran_k" */
+  public static final int GRANULARK = 22;
+
+  /** Constant: Identifier for parameter "num_threads" */
+  public static final int NUMTHREADS = 23;
+
+  /** Constant: Identifier for parameter "lp_solver" */
+  public static final int LPSOLVER = 24;
+
+  /** Constant: Identifier for parameter "lp_perturb" */
+  public static final int LPPERTURB = 25;
+
+  /** Constant: Identifier for parameter "ls_gran_k" */
+  public static final int LSGRANULARK = 26;
+
+  /** Constant: Identifier for parameter "ls_gran_rebuild" */
+  public static final int LSGRANREBUILD = 27;
+
+  /** Constant: Identifier for parameter "arc_pool" */
+  public static final int ARCPOOLSIZE = 28;
+
+  /** Constant: Identifier for parameter "arc_pool_age" */
+  public static final int ARCPOOLAGE = 29;
+
+  /** Constant: Identifier for parameter "par_scan_arcs" */
+  public static final int PARSCANARCS = 30;
+
+  /** Constant: Identifier for parameter "spec_ls" */
+  public static final int SPECLS = 31;
+
+  /** Constant: Identifier for parameter "rnls_adapt" */
+  public static final int RNLSADAPT = 32;
+
+  /** Constant: Identifier for parameter "lazy_best" */
+  public static final int LAZYBEST = 33;
+
+  /** Constant: Identifier for parameter "freq_decay" */
+  public static final int FREQDECAY = 34;
+
+  /** Constant: Identifier for parameter "freq_cost_weight" */
+  public static final int FREQCOSTWEIGHT = 35;
+
+  /** Constant: Identifier for parameter "dont_look" */
+  public static final int DONTLOOK = 36;
+
+  /** Constant: Identifier for parameter "lp_perturb_arcs" */
+  public static final int LPPERTURBARCS = 37;
    
   /** Constant: Identifier for parameter "tolval" */
   public static final int TOLERANCE = 100;
@@ -88,16 +136,26 @@ public class FCTPparam
   /** Constant: Identifier for parameter "outFile" */
   public static final int OUTPUTFILE = 202;
   
+  /** Constant: Identifier for parameter "solFile" */
+  public static final int SOLUTIONFILE = 203;
+  
+  /** Constant: Identifier for parameter "storeDir" */
+  public static final int SOLUTIONSTORE = 204;
+  
   /** Constant: Possible value of parameter "ls_type" **/
   public static final int FIRST_ACCEPT = 0;
   
   /** List of identifiers/keys of integer-valued parameters specified in the configuration file */
   private static int[] intPara = { IMPROVEMETHOD, GREEDYMEAS, LSTYPE, MAXITER, MAXNOIMP, NUMRUNS, 
-                         WHATOUT, POPSIZE, NUMCHILDS, ILSREP, CPXNODELIM, CALLBCK };
+                         WHATOUT, POPSIZE, NUMCHILDS, ILSREP, CPXNODELIM, CALLBCK, GRANULARK,
+                         NUMTHREADS, LPSOLVER, LSGRANULARK, LSGRANREBUILD,
+                         ARCPOOLSIZE, ARCPOOLAGE, PARSCANARCS, SPECLS, RNLSADAPT, LAZYBEST, FREQCOSTWEIGHT,
+                         DONTLOOK };
                            
   /** List of identifiers/keys of double-valued parameters specified in the configuration file */                           
   private static int[] dblePara = { GLSALPHAFCOST, GLSALPHATCOST, SACOOLBETA, MINACCRATE, INIACCRATE, 
-                                    SAMPLEGROWTH, RTRPROCENT, CPXTIME };
+                                    SAMPLEGROWTH, RTRPROCENT, CPXTIME, LPPERTURB, FREQDECAY,
+                                    LPPERTURBARCS };
 
   /** List of identifiers/keys of boolean parameters specified in the configuration file */                           
   private static int[] boolPara = { DORESTART, SCREEN };
@@ -107,7 +165,12 @@ public class FCTPparam
                               "MaxIterWithoutImprove", "GLS_alpha_fixedcost", "GLS_alpha_transpcost",
                               "SA_beta", "min_acc_rate", "ini_acc_rate", "SA_sample_growth", "Runs", 
                               "Restart", "Output", "Intermediate_Output", "lambda", "mu", 
-                              "RTR_ILS_REP", "RTR_procent", "CPXTIME", "CPXNODELIM", "CALLBCK"};
+                              "RTR_ILS_REP", "RTR_procent", "CPXTIME", "CPXNODELIM", "CALLBCK", "GranularK",
+                              "Threads", "LPSolver", "LPPerturb", "LSGranularK", "LSGranularRebuild",
+                              "ArcPoolSize", "ArcPoolAge", "ParallelScanArcs",
+                              "SpeculativeLS", "RNLSAdaptive", "LazyBestAccept",
+                              "FreqMemDecay", "FreqMemCostWeight", "DontLookBits",
+                              "LPPerturbArcs"};
                              
   /** Parameter: controls which improvement method is applied. Possible values are NONE, LOCALSEARCH, 
       ILS, MSLS, SA, SA_OSMAN, GLS, VNS, RTR, RTRJ, GRASP, ANTS, EA, TS, RTR_ILS, ILS_RTR, RTR-VNS, VNS-RTR, 
@@ -118,7 +181,7 @@ public class FCTPparam
       NONE, GR_LIN_CAP, GR_LIN_REMCAP, GR_LIN_TOTC */
   protected static int greedy_meas;
 
-  /** Parameter: type of local search type to be applied, that is FIRST_ACCEPT or BEST_ACCEPT */
+  /** Parameter: type of local search type to be applied, that is FIRST_ACCEPT, BEST_ACCEPT or BLOCK_ACCEPT */
   protected static int ls_type;     
 
   /** Parameter: maximum number of iterations */
@@ -179,6 +242,69 @@ public class FCTPparam
                  heuristic method is used for improving solutionsr */
   protected static int callbck;
 
+  /** Parameter: if positive, constructions (Greedy, RandGreedy, ants) only evaluate the gran_k 
+      cheapest arcs of each supplier and customer (see FCTPgranular) */
+  protected static int gran_k;
+
+  /** Parameter: number of worker threads used by the parallel methods (0 means number of 
+      available cores) */
+  protected static int num_threads;
+
+  /** Parameter: method used for solving the LP relaxation in LPheu (LP_NETFLO or LP_TSIMPLEX) */
+  protected static int lp_solver;
+
+  /** Parameter: maximum relative change of the arc costs in the perturbed LP relaxations used for 
+      generating start solutions (see PEheur.perturbedLPStarts) */
+  protected static double lp_perturb;
+
+  /** Parameter: fraction of the arcs whose costs are changed in a perturbed LP relaxation 
+      (see PEheur.perturbedLPheu) */
+  protected static double lp_perturb_arcs;
+
+  /** Parameter: if positive, the local search methods only evaluate basic exchanges that introduce 
+      candidate arcs, where the ls_gran_k arcs of each supplier and customer with smallest reduced 
+      cost are candidates (see FCTPcandList) */
+  protected static int ls_gran_k;
+
+  /** Parameter: number of neighbourhood evaluations after which the candidate arcs are determined anew */
+  protected static int ls_gran_rebuild;
+
+  /** Parameter: if positive, first and best accept local search and RNLS only evaluate the arcs
+      of an active pool of at most arc_pool promising non-basic arcs between full pricings of 
+      all arcs (see FCTParcPool) */
+  protected static int arc_pool;
+
+  /** Parameter: number of basic exchanges after which the active arc pool is priced anew */
+  protected static int arc_pool_age;
+
+  /** Parameter: minimum number of arcs from which on best accept local search and tabu search 
+      evaluate the neighbourhood with several threads (see FCTPbas.bestMove) */
+  protected static int par_scan_arcs;
+
+  /** Parameter: if positive, first accept local search is done by the speculative multi-threaded
+      engine FCTPspecLS on instances with at least par_scan_arcs arcs */
+  protected static int spec_ls;
+
+  /** Parameter: if positive, RNLS adapts the size of the random neighbourhoods to the recent success
+      rate and improvement per CPU-second (see FCTPsampleSize) */
+  protected static int rnls_adapt;
+
+  /** Parameter: if positive, best accept local search evaluates the arcs in decreasing order of an
+      upper bound on their cost saving in batches of at most lazy_best arcs (see FCTPlazyScan) */
+  protected static int lazy_best;
+
+  /** Parameter: factor by which the weight of earlier solutions in the long-term frequency memory
+      decreases with each new solution (1 = all solutions have the same weight, see FCTPfreqMem) */
+  protected static double freq_decay;
+
+  /** Parameter: if positive, the solutions in the long-term frequency memory are weighted by the 
+      inverse of their cost */
+  protected static int freq_cost_weight;
+
+  /** Parameter: if positive, first accept local search uses don't-look bits, i.e. after a kick it
+      first examines only the arcs incident to nodes touched by the kick (see FCTPbas.wakeUp) */
+  protected static int dont_look;
+
   /** Constant: default value of parameter tolval */
   private static final double tolDefault = 1.0E-4;
   
@@ -193,9 +319,19 @@ public class FCTPparam
   
   /** Parameter: name (full path) of output file (where to write summarized results) */
   protected static String outFile;
+
+  /** Parameter: name (full path) of a solution file. If the file exists, the heuristics start
+      from the solution stored therein, and the file is overwritten if a better solution is found */
+  protected static String solFile;
+
+  /** Parameter: directory of the store of best known solutions (see FCTPstore), null if no store is used */
+  protected static String storeDir;
                             
   /** Constant: Possible value of parameter "ls_type" **/
   public static final int BEST_ACCEPT = 1;
+
+  /** Constant: Possible value of parameter "ls_type" (best accept within blocks of arcs) **/
+  public static final int BLOCK_ACCEPT = 2;
   
   /** Constant: Possible value of parameter "greedy_meas" (linearization by given capacity) */
   public static final int GR_LIN_CAP = 1;
@@ -205,6 +341,12 @@ public class FCTPparam
 
   /** Constant: Possible value of parameter "greedy_meas" (total cost of sending max. flow on the arc) */
   public static final int GR_LIN_TOTC = 3;
+
+  /** Constant: Possible value of parameter "lp_solver" (network simplex of class mcNetflo) */
+  public static final int LP_NETFLO = 0;
+
+  /** Constant: Possible value of parameter "lp_solver" (transportation simplex of class FCTPtsimplex) */
+  public static final int LP_TSIMPLEX = 1;
   
   /** Constant: Possible value of parameter "whatout" */
   public static final int NODETAIL = 1;
@@ -332,11 +474,29 @@ public class FCTPparam
     CPXtime = Double.MAX_VALUE;
     CPXnodeLim = Integer.MAX_VALUE;
     callbck = 0;
+    gran_k = 0;
+    num_threads = 0;
+    lp_solver = LP_NETFLO;
+    lp_perturb = 0.2;
+    lp_perturb_arcs = 0.1;
+    ls_gran_k = 0;
+    ls_gran_rebuild = 100;
+    arc_pool = 0;
+    arc_pool_age = 100;
+    par_scan_arcs = 20000;
+    spec_ls = 0;
+    rnls_adapt = 0;
+    lazy_best = 0;
+    freq_decay = 1.0;
+    freq_cost_weight = 0;
+    dont_look = 0;
     screen_on = ON;
     ls_type = FIRST_ACCEPT;
     impMethod = NONE;    
     inFile = null;
     outFile = null;
+    solFile = null;
+    storeDir = null;
     initFile = null;
   }    
   
@@ -352,6 +512,19 @@ public class FCTPparam
     {
       switch ( id )
       {
+        case GRANULARK: gran_k = value; break;
+        case NUMTHREADS: num_threads = value; break;
+        case LPSOLVER: lp_solver = value; break;
+        case LSGRANULARK: ls_gran_k = value; break;
+        case LSGRANREBUILD: if ( value > 0 ) ls_gran_rebuild = value; break;
+        case ARCPOOLSIZE: arc_pool = value; break;
+        case ARCPOOLAGE: if ( value > 0 ) arc_pool_age = value; break;
+        case PARSCANARCS: par_scan_arcs = value; break;
+        case SPECLS: spec_ls = value; break;
+        case RNLSADAPT: rnls_adapt = value; break;
+        case LAZYBEST: lazy_best = value; break;
+        case FREQCOSTWEIGHT: freq_cost_weight = value; break;
+        case DONTLOOK: dont_look = value; break;
         case MAXITER: max_iter = value; break;
         case MAXNOIMP: max_no_imp = value; break;
         case NUMRUNS: num_runs = value; break;
@@ -406,6 +579,9 @@ public class FCTPparam
         case RTRPROCENT: RTR_percent = Math.max( tolval, value ); break;
         case TOLERANCE: tolval = Math.min( value, 0.99 ); break;
         case CPXTIME: CPXtime = value; break;
+        case LPPERTURB: lp_perturb = Math.min( value, 0.99 ); break;
+        case FREQDECAY: if ( ( value > 0 ) && ( value <= 1 ) ) freq_decay = value; break;
+        case LPPERTURBARCS: lp_perturb_arcs = Math.min(1.0, Math.max( 0.0, value ) ); break;
       }    
     }    
 
@@ -424,6 +600,8 @@ public class FCTPparam
       case INITFILE: initFile = value; break;  
       case INPUTFILE: inFile = value; break;
       case OUTPUTFILE: outFile = value; break;
+      case SOLUTIONFILE: solFile = value; break;
+      case SOLUTIONSTORE: storeDir = value; break;
     }    
   }    
 
@@ -437,6 +615,8 @@ public class FCTPparam
     System.out.println("----------------------------------------------------------");   
     System.out.println("Input data file            : "+inFile );
     System.out.println("Output is send to file     : "+outFile );
+    System.out.println("Solution file              : "+solFile );
+    System.out.println("Solution store             : "+storeDir );
     System.out.println("Method to be applied       : "+getProcName( ) );
     if ( greedy_meas > 0 )
     {
@@ -465,9 +645,33 @@ public class FCTPparam
     System.out.println("CPLEX time limit           : "+CPXtime );
     System.out.println("CPLEX node limit           : "+CPXnodeLim );
     System.out.println("Callback heuristic         : "+callbck );
+    System.out.println("Granular construction k    : "+gran_k );
+    System.out.println("Number of threads          : "+numThreads() );
+    System.out.println("LP solver                  : "+lp_solver );
+    System.out.println("LP cost perturbation       : "+lp_perturb );
+    System.out.println("LP perturbed arc fraction  : "+lp_perturb_arcs );
+    System.out.println("Granular local search k    : "+ls_gran_k );
+    System.out.println("Granular rebuild period    : "+ls_gran_rebuild );
+    System.out.println("Active arc pool size       : "+arc_pool );
+    System.out.println("Active arc pool max. age   : "+arc_pool_age );
+    System.out.println("Parallel scan from #arcs   : "+par_scan_arcs );
+    System.out.println("Speculative first accept   : "+spec_ls );
+    System.out.println("Adaptive RNLS sample size  : "+rnls_adapt );
+    System.out.println("Lazy best accept batch     : "+lazy_best );
+    System.out.println("Frequency memory decay     : "+freq_decay );
+    System.out.println("Frequency memory cost wght : "+freq_cost_weight );
+    System.out.println("Don't-look bits            : "+dont_look );
     System.out.println("----------------------------------------------------------"); 
 
   } 
+
+  /**
+   *  Return the number of worker threads used by the parallel methods
+   */
+  public static int numThreads( )
+  {
+    return( ( num_threads > 0 ) ? num_threads : Runtime.getRuntime().availableProcessors() );
+  }
     
   /**
    *  Return the name of the improvement method corresponding to the value of parameter "impMethod"
@@ -532,6 +736,8 @@ public class FCTPparam
           String param = p.getProperty( paraName[pid] );
           if ( param != null ) setParam( pid, ( Integer.parseInt(param) > NONE ) );
         }    
+        String store = p.getProperty( "SolutionStore" );
+        if ( store != null ) setParam( SOLUTIONSTORE, store.trim() );
       } catch ( Exception e)
       {
         throw ( e );   
@@ -1,4 +1,6 @@
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Population based metaheuristic methods for the Fixed Charge Transportation Problem (FCTP)
@@ -8,6 +10,10 @@ import java.util.*;
  */
 public class FCTPpop extends PEheur
 {  
+  /** work space of AntProcess: list of arcs and their values (allocated on first use) */
+  private int[] antLst = null;
+  private double[] antVal = null;
+
   /**
    * Constructor 
    *    
@@ -34,6 +40,31 @@ public class FCTPpop extends PEheur
     super( mm, nn, s, d, tc, fc, copyDat );  
   }    
 
+  /**
+   * Constructor that takes an implicit cost model instead of cost arrays
+   * 
+   *  @param mm       number of suppliers
+   *  @param nn       number of customers
+   *  @param s        integer array of mm supply quantities
+   *  @param d        integer array of nn demand quantities
+   *  @param cst      cost model computing unit and fixed cost of each arc on demand
+   */
+  public FCTPpop( int mm, int nn, int[] s, int[] d, FCTPcost cst ) 
+  {
+    super( mm, nn, s, d, cst );  
+  }    
+
+  /**
+   * Returns a worker object for the parallel methods (see PEheur.newWorker)
+   */
+  protected FCTPpop newWorker( )
+  {
+    FCTPpop w = ( costs == null ) ? new FCTPpop( m, n, supply, demand, tcost, fcost, false )
+                                  : new FCTPpop( m, n, supply, demand, costs );
+    w.initWorker( this );
+    return( w );
+  }
+
   /**
    * Random greedy construction done by a single ant
    *
@@ -43,6 +74,13 @@ public class FCTPpop extends PEheur
    */
   private void AntProcess( double[] pheromone, double q0 )
   {
+    if ( FCTPparam.gran_k > 0 )
+    {
+      GranularConstruct( SEL_ANT, q0, pheromone );
+      LocalSearch( );
+      return;
+    }
+
     // Initialise remaining supply and demand
     int[] r_supply = new int[m];  
     int[] r_demand = new int[n];  
@@ -59,8 +97,13 @@ public class FCTPpop extends PEheur
     // Iteratively add arcs to the solution until demand and supply is exhausted
     int mm = m;
     int nn = n;
-    int[] arc_lst = new int[narcs];      
-    double[] arc_val= new double[narcs]; 
+    if ( antLst == null )
+    {
+      antLst = new int[narcs];
+      antVal = new double[narcs];
+    }
+    int[] arc_lst = antLst;
+    double[] arc_val = antVal;
     while ( ( mm > 0 ) && ( nn > 0 ) )
     { // Compute greedy evaluations of arcs multiplied by pheromone values
       int lst_len = 0;
@@ -122,18 +165,23 @@ public class FCTPpop extends PEheur
 
   
   /**
-   * Ant colony system approach to the FCTP
+   * Ant colony system approach to the FCTP. The ants of an iteration run concurrently
+   * on FCTPparam.numThreads() worker objects (see newWorker). Each ant gets its own seed
+   * drawn from randgen, and among ants of equal cost the one of smallest number becomes
+   * the iteration best, so that the result does not depend on the number of threads.
+   * With an implicit cost model, the ants run in a single worker thread, since a cost
+   * model with a cache is not thread-safe.
    */
   public void AntColony()
   {
-    double rho   = 0.9; // parameter used to mimic pheromone evaporation
-    double alpha = 0.8; // weight of iteration best ant
+    final double rho   = 0.9; // parameter used to mimic pheromone evaporation
+    final double alpha = 0.8; // weight of iteration best ant
 
-    FCTPsol best_sol = new FCTPsol( m, n );   
-    FCTPsol iter_sol = new FCTPsol( m, n);
+    final FCTPsol best_sol = new FCTPsol( m, n );   
+    final FCTPsol iter_sol = new FCTPsol( m, n);
     best_sol.totalCost = Double.MAX_VALUE;
 
-    double[] pheromone = new double[narcs];
+    final double[] pheromone = new double[narcs];
     Arrays.fill( pheromone, 1.0 );
     
     // Scaling parameter Q
@@ -142,7 +190,7 @@ public class FCTPpop extends PEheur
     for ( int i=0; i < m; i++ ) totS += supply[i];
     for ( int arc=0; arc < narcs; arc++ )
     {
-      double tmp = tcost[arc] + fcost[arc]/getCap(arc);
+      double tmp = gettcost(arc) + getfcost(arc)/getCap(arc);
       if ( tmp < Q ) Q = tmp;
     }
     Q *= totS;
@@ -154,42 +202,104 @@ public class FCTPpop extends PEheur
       System.out.println("Iter  Ant_nr.  Iter_best  Best_objval");
     }
 
+    final int num_ants = m; // number of ants to be used
+    final long[] seed = new long[num_ants];
+    
+    // Worker objects and the best solution and ant found by each worker in an iteration
+    final int nthreads = ( costs == null ) ? Math.min( FCTPparam.numThreads(), num_ants ) : 1;
+    final FCTPpop[] worker = new FCTPpop[nthreads];
+    final FCTPsol[] w_best = new FCTPsol[nthreads];
+    final int[] w_queen = new int[nthreads];
+    for ( int w=0; w < nthreads; w++ )
+    {
+      worker[w] = newWorker();
+      w_best[w] = new FCTPsol( m, n );
+    }
+    
+    // Tasks letting the workers process the ants
+    final AtomicInteger next_ant = new AtomicInteger();
+    List<Callable<Void>> ant_tasks = new ArrayList<Callable<Void>>();
+    for ( int w=0; w < nthreads; w++ )
+    {
+      final int ww = w;
+      ant_tasks.add( () ->
+      {
+        FCTPpop wk = worker[ww];
+        w_best[ww].totalCost = Double.MAX_VALUE;
+        for ( int ant = next_ant.getAndIncrement(); ant < num_ants; ant = next_ant.getAndIncrement() )
+        { // ant nr. "ant" constructs a solution
+          wk.randgen.setSeed( seed[ant] );
+          wk.AntProcess( pheromone, 0.5 );
+          if ( wk.solution.totalCost < w_best[ww].totalCost )
+          {
+            w_best[ww].Overwrite( wk.solution );
+            w_queen[ww] = ant;
+          }
+        }
+        return( null );
+      } );
+    }
+
+    // Tasks updating the pheromone values, each on a stripe of arcs
+    final double[] weight = new double[2];
+    final int stripe = ( narcs + nthreads - 1 )/nthreads;
+    List<Callable<Void>> upd_tasks = new ArrayList<Callable<Void>>();
+    for ( int w=0; w < nthreads; w++ )
+    {
+      final int first = w*stripe;
+      final int last = Math.min( narcs, first+stripe );
+      upd_tasks.add( () ->
+      {
+        for ( int arc = first; arc < last; arc++ )
+        { 
+          pheromone[arc] *= rho; // evaporation
+          if ( best_sol.flow[arc] > 0 ) pheromone[arc] += weight[0];
+          if ( iter_sol.flow[arc] > 0 ) pheromone[arc] += weight[1];
+        }  
+        return( null );
+      } );
+    }
+
     int iter = 0; // iteration counter
     int itr = 0;  // counter of subsequent unsuccessful iterations
-    int num_ants = m; // number of ants to be used
-    do
+    ExecutorService pool = Executors.newFixedThreadPool( nthreads );
+    try
     {
-      iter++;
-      iter_sol.totalCost = Double.MAX_VALUE;
-      int it_queen=0;
-      for ( int ant=0; ant < num_ants; ant++ ) 
+      do
       {
-        // ant nr. "ant" constructs a solution
-        AntProcess( pheromone, 0.5 );
-        // new iteration-best ant?
-        if ( solution.totalCost < iter_sol.totalCost ) 
-        {
-          iter_sol.Overwrite(solution);
-          it_queen = ant;
-        }  
-      }
-      itr++;
-      if ( iter_sol.totalCost < best_sol.totalCost ) 
-      { // new global best ant
-        itr = 0;
-        best_sol.Overwrite( iter_sol );
-      }
-      if ( FCTPparam.screen_on )
-        System.out.format("%4d  %7d  %9.2f  %11.2f%n",iter,it_queen,iter_sol.totalCost,best_sol.totalCost);
-      // Update pheromone values
-      for ( int arc = 0; arc < narcs; arc++ )
-      { 
-        pheromone[arc] *= rho; // evaporation
-        if ( best_sol.flow[arc] > 0 ) pheromone[arc] += (1.0-alpha)*Q/best_sol.totalCost;
-        if ( iter_sol.flow[arc] > 0 ) pheromone[arc] += alpha*Q/iter_sol.totalCost;
-      }  
-      
-    } while ( itr < FCTPparam.max_no_imp );
+        iter++;
+        for ( int ant=0; ant < num_ants; ant++ ) seed[ant] = randgen.nextLong();
+        next_ant.set( 0 );
+        runAll( pool, ant_tasks );
+        
+        // iteration-best ant
+        int bw = 0;
+        for ( int w=1; w < nthreads; w++ ) 
+          if ( ( w_best[w].totalCost < w_best[bw].totalCost ) 
+            || ( ( w_best[w].totalCost == w_best[bw].totalCost ) && ( w_queen[w] < w_queen[bw] ) ) ) bw = w;
+        iter_sol.Overwrite( w_best[bw] );
+        int it_queen = w_queen[bw];
+        
+        itr++;
+        if ( iter_sol.totalCost < best_sol.totalCost ) 
+        { // new global best ant
+          itr = 0;
+          best_sol.Overwrite( iter_sol );
+        }
+        if ( FCTPparam.screen_on )
+          System.out.format("%4d  %7d  %9.2f  %11.2f%n",iter,it_queen,iter_sol.totalCost,best_sol.totalCost);
+        
+        // Update pheromone values
+        weight[0] = (1.0-alpha)*Q/best_sol.totalCost;
+        weight[1] = alpha*Q/iter_sol.totalCost;
+        runAll( pool, upd_tasks );
+        
+      } while ( itr < FCTPparam.max_no_imp );
+    }
+    finally
+    {
+      pool.shutdown();
+    }
     
     // Reset the library's internal solution to best solution found above
     solution.Overwrite( best_sol );
@@ -229,16 +339,16 @@ public class FCTPpop extends PEheur
     
     // Fill the population with solutions generated from a randomized greedy
     // where the last half of the population is purely randomly generated
-    int pop_size = 2;
-    for ( double greedy_rnd = 0.5; pop_size < FCTPparam.lambda; pop_size++ )
+    final int half = FCTPparam.lambda/2;
+    FCTPsol[] rnd_sols = constructPool( FCTPparam.lambda-2, ( w, k ) -> w.RandGreedy( ( k+2 <= half ) ? 0.5 : 1.0 ) );
+    for ( int pop_size = 2; pop_size < FCTPparam.lambda; pop_size++ )
     {
-      RandGreedy( greedy_rnd );
+      FCTPsol sol = rnd_sols[pop_size-2];
       if ( FCTPparam.screen_on ) System.out.print(".");
-      Population[pop_size] = new FCTPsol( solution );
-      ave_fit += solution.totalCost;
-      if ( solution.totalCost > worst_fit ) worst_fit = solution.totalCost;
-      if ( solution.totalCost < best_fit ) best_fit = solution.totalCost;        
-      if ( pop_size >= FCTPparam.lambda/2 ) greedy_rnd = 1.0;
+      Population[pop_size] = sol;
+      ave_fit += sol.totalCost;
+      if ( sol.totalCost > worst_fit ) worst_fit = sol.totalCost;
+      if ( sol.totalCost < best_fit ) best_fit = sol.totalCost;        
     }
     ave_fit /= FCTPparam.lambda;
 
@@ -249,26 +359,23 @@ public class FCTPpop extends PEheur
       System.out.format("%10d  %12.2f  %13.2f  %12.2f%n",0,ave_fit,worst_fit,best_fit);
     }
 
-    // Allocate memory for the child solutions
-    for ( int nchild=0; nchild < FCTPparam.mu; nchild++ )
-      Population[FCTPparam.lambda+nchild] = new FCTPsol( m, n );
-         
     int iter  = 0;
     int nfail = 0;
     do
     {
       iter++;
       double oldbest = best_fit;
-      for ( int nchilds=0; nchilds < FCTPparam.mu; nchilds++ )
-      { // Generate "off-spring" of a randomly selected mother        
-        int num = randgen.nextInt(FCTPparam.lambda);
-        solution.Overwrite( Population[num] );
+      // Generate "off-spring" of randomly selected mothers (concurrently)
+      FCTPsol[] childs = constructPool( FCTPparam.mu, ( w, k ) ->
+      {
+        int num = w.randgen.nextInt(FCTPparam.lambda);
+        w.solution.Overwrite( Population[num] );
         // Reducing randomness of the kick for later generations can be worth 
         // to be investigated. Set, e.g., nkick = max( 10, (m+n-1)/2/log(iter+1) );
-        Kicksolution( (m+n-1)/2 );
-        LocalSearch( );
-        Population[FCTPparam.lambda+nchilds].Overwrite( solution );
-      }
+        w.Kicksolution( (m+n-1)/2 );
+        w.LocalSearch( );
+      } );
+      System.arraycopy( childs, 0, Population, FCTPparam.lambda, FCTPparam.mu );
       // Let new population consist of the best lambda solutions
       Arrays.sort( Population, 0, FCTPparam.lambda+FCTPparam.mu );
       // Compute average, worst and best fitness of new population
@@ -517,9 +624,6 @@ public class FCTPpop extends PEheur
     if ( do_display )
       System.out.println("=== Sune, Camilla and Sandra's extended scatter search ====");
      
-    // Make a copy of the current initial solution (usuually generated by the LP heuristic)
-    FCTPsol startSol = new FCTPsol( solution );
-
     // Try to fill half the pool with solutions from ILS
     ArrayList Pool = new ArrayList();
     int poolSize = n+m+1;
@@ -527,24 +631,30 @@ public class FCTPpop extends PEheur
     int maxTrial = 2*poolSize;
     int numTrial = 0;
     double greediness = 0.0;
-    double greedyInc  = 1.0/(double)(halfPool-1);
+    final double greedyInc  = 1.0/(double)(halfPool-1);
     if ( do_display ) System.out.print("Filling pool with initial solutions: ");
-    do
+    // Solutions are built concurrently in rounds; each round tries to fill the
+    // remaining places (ILS starts from the initial solution)
+    while ( ( Pool.size() < poolSize ) && ( numTrial < maxTrial ) )
     {
       boolean useILS = Pool.size() < halfPool;
+      int num = Math.min( ( useILS ? halfPool : poolSize ) - Pool.size(), maxTrial - numTrial );
+      final double g0 = greediness;
+      FCTPsol[] sols;
       if ( useILS )
-        ILS();
+        sols = constructPool( num, ( w, k ) -> w.ILS() );
       else
       {
-        RandGreedy( greediness );
-        greediness += greedyInc;
+        sols = constructPool( num, ( w, k ) -> w.RandGreedy( g0 + k*greedyInc ) );
+        greediness += num*greedyInc;
       }
-      FCTPsol curSol = new FCTPsol( solution );
-      if ( ! curSol.containedIn( Pool ) ) Pool.add( curSol );
-      if ( useILS ) solution.Overwrite( startSol );
-      if ( do_display ) System.out.print(".");
-      numTrial++;
-    } while ( ( Pool.size() < poolSize ) && ( numTrial < maxTrial ) );
+      for ( FCTPsol curSol : sols )
+      {
+        if ( ! curSol.containedIn( Pool ) ) Pool.add( curSol );
+        if ( do_display ) System.out.print(".");
+      }
+      numTrial += num;
+    }
     if ( do_display ) System.out.println();
         
     // Apply scatter search procedure SS_I on the pool of solutions
@@ -692,23 +802,22 @@ public class FCTPpop extends PEheur
     //ILS();
     // Just add LP solution/initial solution to the pool as it is
     Pool.add( new FCTPsol( solution ) );
+    // Solutions are built concurrently in rounds, each trying to fill the remaining places
     do
     {
-      if(Math.random() < 0.5){
-        if(randgen.nextBoolean()) LPheu();
-        else {RandGreedy(0.5);}
-        ILS();
-      }
-      else {
-        if(randgen.nextBoolean()) LPheu();
-        else {RandGreedy(0.5);}
-        ILS();
+      int num = Math.max( 1, Math.min( poolSize - Pool.size(), maxTrial - numTrial ) );
+      FCTPsol[] sols = constructPool( num, ( w, k ) ->
+      {
+        if(w.randgen.nextBoolean()) w.LPheu();
+        else {w.RandGreedy(0.5);}
+        w.ILS();
+      } );
+      for ( FCTPsol curSol : sols )
+      {
+        if ( ! curSol.containedIn( Pool ) ) Pool.add( curSol );
+        if ( FCTPparam.screen_on ) System.out.print(".");
       }
-      FCTPsol curSol = new FCTPsol( solution );
-      if ( ! curSol.containedIn( Pool ) ) Pool.add( curSol );
-
-      if ( FCTPparam.screen_on ) System.out.print(".");
-      numTrial++;
+      numTrial += num;
     } while ( ( Pool.size() < poolSize ) && ( numTrial < maxTrial ) );
     if ( FCTPparam.screen_on ) System.out.println();
 
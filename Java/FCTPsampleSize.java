@@ -0,0 +1,161 @@
+/**
+ * Adaptive size of the random neighbourhoods sampled by RNLS. Instead of always sampling
+ * narcs/splits arcs, RNLS samples scale*narcs/splits arcs, where the scale factor is adapted
+ * after each call of RNLS (a period) from the statistics recorded during the period:
+ * <ul>
+ * <li> If less than LOW_SUCCESS of the samples contained an improving basic exchange, improving
+ *      moves are missed and the scale is increased. </li>
+ * <li> If more than HIGH_SUCCESS of the samples contained an improving basic exchange, smaller
+ *      samples suffice and the scale is decreased. </li>
+ * <li> Otherwise the scale is moved further in the direction of the last change as long as the
+ *      improvement per CPU-second of the period is not below that of the previous period, and in
+ *      the opposite direction if it is. </li>
+ * </ul>
+ * The scale stays within [MIN_SCALE, MAX_SCALE]. The smoothed success rate, improvement per
+ * second and time per evaluation are public, so that the heuristics (and RL agents by means of
+ * getState) can observe the state of the search.
+ *
+ * @version 19/10/2026
+ */
+public class FCTPsampleSize
+{
+  /** smallest scale factor */
+  public static final double MIN_SCALE = 0.125;
+
+  /** largest scale factor */
+  public static final double MAX_SCALE = 8.0;
+
+  /** factor by which the scale is changed after a period */
+  private static final double STEP = 1.25;
+
+  /** success rate below which the scale is increased */
+  private static final double LOW_SUCCESS = 0.2;
+
+  /** success rate above which the scale is decreased */
+  private static final double HIGH_SUCCESS = 0.8;
+
+  /** weight of the last period in the smoothed statistics */
+  private static final double ALPHA = 0.3;
+
+  /** current scale factor of the sample size */
+  public double scale = 1.0;
+
+  /** smoothed proportion of samples that contained an improving basic exchange */
+  public double successRate = 0.0;
+
+  /** smoothed cost improvement per CPU-second */
+  public double gainPerSec = 0.0;
+
+  /** smoothed CPU-time per evaluated basic exchange in nanoseconds */
+  public double nanosPerEval = 0.0;
+
+  /** number of periods (calls of adapt) */
+  public long numPeriods = 0;
+
+  /** number of samples drawn */
+  public long numSamples = 0;
+
+  /** number of evaluated basic exchanges */
+  public long numEvals = 0;
+
+  /** improvement per CPU-second in the previous period (not smoothed) */
+  private double lastRate = 0.0;
+
+  /** direction (+1 or -1) of the last change of the scale */
+  private int dir = 1;
+
+  /** samples drawn in the current period */
+  private int perSamples = 0;
+
+  /** samples of the current period that contained an improving basic exchange */
+  private int perSuccess = 0;
+
+  /** evaluations in the current period */
+  private long perEvals = 0;
+
+  /** CPU-time of the current period in nanoseconds */
+  private long perNanos = 0;
+
+  /** cost improvement obtained in the current period */
+  private double perGain = 0.0;
+
+  /**
+   * Returns the number of arcs to be sampled
+   *
+   * @param narcs  number of arcs
+   * @param splits the non-adaptive sample size is narcs/splits
+   */
+  public int size( int narcs, int splits )
+  {
+    int size = (int)Math.round( scale*narcs/splits );
+    return( Math.max( 1, Math.min( narcs, size ) ) );
+  }
+
+  /**
+   * Records the result of a sample
+   *
+   * @param evals  number of basic exchanges evaluated
+   * @param nanos  CPU-time in nanoseconds spent on the sample
+   * @param saving largest cost saving found in the sample
+   */
+  public void record( int evals, long nanos, double saving )
+  {
+    perSamples++;
+    perEvals += evals;
+    perNanos += nanos;
+    if ( saving > FCTPparam.tolval )
+    {
+      perSuccess++;
+      perGain += saving;
+    }
+  }
+
+  /** Ends the current period and adapts the scale factor */
+  public void adapt( )
+  {
+    if ( perSamples == 0 ) return;
+    double succ = (double)perSuccess/perSamples;
+    double rate = perGain*1.0E9/Math.max( 1, perNanos );
+    if ( numPeriods == 0 )
+    {
+      successRate = succ;
+      gainPerSec = rate;
+      nanosPerEval = (double)perNanos/Math.max( 1, perEvals );
+    }
+    else
+    {
+      successRate += ALPHA*( succ - successRate );
+      gainPerSec += ALPHA*( rate - gainPerSec );
+      if ( perEvals > 0 ) nanosPerEval += ALPHA*( (double)perNanos/perEvals - nanosPerEval );
+    }
+    if ( succ < LOW_SUCCESS )
+      dir = 1;
+    else if ( succ > HIGH_SUCCESS )
+      dir = -1;
+    else if ( ( numPeriods > 0 ) && ( rate < lastRate ) )
+      dir = -dir;
+    lastRate = rate;
+    scale = ( dir > 0 ) ? Math.min( MAX_SCALE, scale*STEP ) : Math.max( MIN_SCALE, scale/STEP );
+    numPeriods++;
+    numSamples += perSamples;
+    numEvals += perEvals;
+    perSamples = perSuccess = 0;
+    perEvals = perNanos = 0;
+    perGain = 0.0;
+  }
+
+  /** Returns the array { scale, successRate, gainPerSec, nanosPerEval } */
+  public double[] getState( )
+  {
+    return( new double[] { scale, successRate, gainPerSec, nanosPerEval } );
+  }
+
+  /** Returns a summary of the state and the counters */
+  public String toString( )
+  {
+    return( String.format( "Adaptive RNLS: scale %.3f, success rate %.2f, %.1f per second, %.0f ns per evaluation, "
+                           + "%d periods, %d samples, %d evaluations", scale, successRate, gainPerSec,
+                           nanosPerEval, numPeriods, numSamples, numEvals ) );
+  }
+
+}
@@ -28,6 +28,12 @@ public class FCTPsol implements Comparable
       i to customer j on the arc i*n+j */
   public int[] flow;
  
+  /** Constant: magic number at the start of a binary solution file */
+  public static final int MAGIC = 0x46534F4C; // "FSOL"
+
+  /** Constant: file suffix of binary solution files (all other files are read as text) */
+  public static final String BINSUFFIX = ".FSOLB";
+
   /** number of supply nodes */
   private int m;
   
@@ -132,6 +138,18 @@ public class FCTPsol implements Comparable
       totalCost += fcost[arc] + tcost[arc]*flow[arc];
   }    
 
+  /**
+   *  Computes the total cost of the current flow using an implicit cost model
+   *  
+   *  @param  cst   cost model returning unit and fixed cost of each arc
+   */
+  public void ComputeCost( FCTPcost cst )
+  {
+    totalCost = 0.0;
+    for ( int arc=0; arc < flow.length; arc++ ) if ( flow[arc] > 0 )
+      totalCost += cst.getfcost( arc/n, arc%n ) + cst.gettcost( arc/n, arc%n )*flow[arc];
+  }    
+
   public double returnCost( double[] fcost, double[] tcost )
   {
     double flowCost = 0.0;
@@ -156,6 +174,185 @@ public class FCTPsol implements Comparable
     return( flowCost );
   }    
 
+  /**
+   *  Writes the solution to a file. Only the basic arcs and the arcs with positive flow
+   *  are stored. The binary format is used if the file name ends with BINSUFFIX and
+   *  the text format otherwise. The text format is
+   *  <pre>
+   *  m n
+   *  totalCost
+   *  k
+   *  i j flow     (k lines, one for each stored arc; flow is the flow from supplier i to customer j)
+   *  </pre>
+   *  The binary format contains MAGIC, m, n (int), totalCost (double), k (int) and
+   *  then k pairs (arc, flow) of integers with arc = i*n+j.
+   *  
+   *  @param fname full path of the file to be written
+   */
+  public void Write( String fname ) throws IOException
+  {
+    if ( fname.endsWith( BINSUFFIX ) )
+    {
+      DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( fname ) ) );
+      out.writeInt( MAGIC );
+      writeBinary( out );
+      out.close();
+    }
+    else
+    {
+      int k = numStored( );
+      StringBuilder buf = new StringBuilder( 16*k+64 );
+      buf.append( m ).append( ' ' ).append( n ).append( '\n' );
+      buf.append( totalCost ).append( '\n' );
+      buf.append( k ).append( '\n' );
+      for ( int arc=0; arc < flow.length; arc++ ) if ( ( arc_stat[arc] == 1 ) || ( flow[arc] > 0 ) )
+        buf.append( arc/n ).append( ' ' ).append( arc%n ).append( ' ' ).append( flow[arc] ).append( '\n' );
+      BufferedWriter out = new BufferedWriter( new FileWriter( fname ) );
+      out.write( buf.toString() );
+      out.close();
+    }
+  }
+
+  /**
+   *  Reads a solution written by method Write. Flows and arc status are set; the arcs
+   *  not listed in the file get zero flow. The basis tree is not set up by this method
+   *  (see FCTPbas.loadSolution). A file that is incomplete, contains invalid numbers or
+   *  refers to arcs outside of the instance gives an IOException, in which case the
+   *  solution object is partially overwritten.
+   *  
+   *  @param fname full path of the solution file
+   */
+  public void Read( String fname ) throws IOException
+  {
+    if ( fname.endsWith( BINSUFFIX ) )
+    {
+      DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( fname ) ) );
+      try
+      {
+        if ( in.readInt() != MAGIC ) throw new IOException( fname+" is not a binary FCTP solution file" );
+        readBinary( in );
+      }
+      finally
+      {
+        in.close();
+      }
+    }
+    else
+    {
+      BufferedReader in = new BufferedReader( new FileReader( fname ) );
+      try
+      {
+        Arrays.fill( flow, 0 );
+        Arrays.fill( arc_stat, 0 );
+        StreamTokenizer tok = new StreamTokenizer( in );
+        tok.resetSyntax();
+        tok.wordChars( 33, 255 );
+        tok.whitespaceChars( 0, 32 );
+        if ( ( readInt( tok ) != m ) || ( readInt( tok ) != n ) ) 
+          throw new IOException( "Solution in "+fname+" does not fit the instance size" );
+        totalCost = readDouble( tok );
+        int k = readCount( readInt( tok ) );
+        for ( int l=0; l < k; l++ )
+        {
+          int i = readInt( tok );
+          int j = readInt( tok );
+          if ( ( i < 0 ) || ( i >= m ) || ( j < 0 ) || ( j >= n ) ) 
+            throw new IOException( "Solution in "+fname+" contains the invalid arc "+i+" -> "+j );
+          int arc = i*n+j;
+          flow[arc] = readInt( tok );
+          arc_stat[arc] = 1;
+        }
+      }
+      finally
+      {
+        in.close();
+      }
+    }
+  }
+
+  /** Returns the number of arcs that are stored when writing the solution */
+  private int numStored( )
+  {
+    int k = 0;
+    for ( int arc=0; arc < flow.length; arc++ ) if ( ( arc_stat[arc] == 1 ) || ( flow[arc] > 0 ) ) k++;
+    return( k );
+  }
+
+  /**
+   *  Writes the solution in binary format (without the leading MAGIC) to a stream
+   *  
+   *  @param out stream the solution is written to
+   */
+  public void writeBinary( DataOutput out ) throws IOException
+  {
+    out.writeInt( m );
+    out.writeInt( n );
+    out.writeDouble( totalCost );
+    out.writeInt( numStored( ) );
+    for ( int arc=0; arc < flow.length; arc++ ) if ( ( arc_stat[arc] == 1 ) || ( flow[arc] > 0 ) )
+    {
+      out.writeInt( arc );
+      out.writeInt( flow[arc] );
+    }
+  }
+
+  /**
+   *  Reads a solution in binary format (without the leading MAGIC) from a stream
+   *  
+   *  @param in stream the solution is read from
+   */
+  public void readBinary( DataInput in ) throws IOException
+  {
+    if ( ( in.readInt() != m ) || ( in.readInt() != n ) ) 
+      throw new IOException( "Stored solution does not fit the instance size" );
+    Arrays.fill( flow, 0 );
+    Arrays.fill( arc_stat, 0 );
+    totalCost = in.readDouble();
+    int k = readCount( in.readInt() );
+    for ( int l=0; l < k; l++ )
+    {
+      int arc = in.readInt();
+      if ( ( arc < 0 ) || ( arc >= flow.length ) ) throw new IOException( "Stored solution contains the invalid arc "+arc );
+      flow[arc] = in.readInt();
+      arc_stat[arc] = 1;
+    }
+  }
+
+  /** Returns the next token of a solution file as integer */
+  private static int readInt( StreamTokenizer tok ) throws IOException
+  {
+    if ( tok.nextToken() != StreamTokenizer.TT_WORD ) throw new EOFException( "Solution file is incomplete" );
+    try
+    {
+      return( Integer.parseInt( tok.sval ) );
+    }
+    catch ( NumberFormatException exc )
+    {
+      throw new IOException( "Solution file contains the invalid integer "+tok.sval );
+    }
+  }
+
+  /** Returns the next token of a solution file as double */
+  private static double readDouble( StreamTokenizer tok ) throws IOException
+  {
+    if ( tok.nextToken() != StreamTokenizer.TT_WORD ) throw new EOFException( "Solution file is incomplete" );
+    try
+    {
+      return( Double.parseDouble( tok.sval ) );
+    }
+    catch ( NumberFormatException exc )
+    {
+      throw new IOException( "Solution file contains the invalid number "+tok.sval );
+    }
+  }
+
+  /** Checks the number of stored arcs read from a solution file and returns it */
+  private int readCount( int k ) throws IOException
+  {
+    if ( ( k < 0 ) || ( k > flow.length ) ) throw new IOException( "Solution file contains the invalid arc count "+k );
+    return( k );
+  }
+
   /**
    *  Method that prints the flow quantities in a solution to the screen/terminal
    */
@@ -0,0 +1,171 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Speculative multi-threaded first accept local search. The search proceeds in rounds. In each
+ * round the arcs, starting from some offset, are split into one contiguous range per thread, and
+ * the threads scan their ranges in parallel until one of them finds an improving basic exchange.
+ * The other threads then stop as well; each thread proposes the first improving arc it found (if
+ * any). During the scan the current solution is not changed. Afterwards the calling thread, which
+ * is the only one that changes the solution, evaluates the proposals in the order of the ranges
+ * once more against the current basis and applies those that are still improving. The next round
+ * starts behind the last arc applied. A round without any proposal proves a local optimum.
+ *
+ * Evaluations are "wasted" if they were made by a thread whose proposal was not applied or that
+ * had no proposal in a round that ended with a move (such arcs are evaluated again later). The
+ * counters numEvals and numWasted allow to judge if the speculation pays off (see toString).
+ *
+ * The results are not reproducible across different numbers of threads: the number of threads
+ * determines how the arcs are split into ranges and hence which improving exchanges are proposed
+ * and applied. Even for a fixed number of threads, the proposals depend on when a thread notices
+ * that another one has found an improving exchange, so that runs may differ by timing.
+ *
+ * @version 19/10/2026
+ */
+public class FCTPspecLS
+{
+  /** instance whose current solution is improved */
+  private FCTPbas inst;
+
+  /** number of threads */
+  public final int nthreads;
+
+  /** number of rounds */
+  public long numRounds = 0;
+
+  /** number of evaluated basic exchanges */
+  public long numEvals = 0;
+
+  /** number of evaluations that were wasted */
+  public long numWasted = 0;
+
+  /** number of basic exchanges applied */
+  public long numCommits = 0;
+
+  /** number of proposals that were not improving anymore when they were evaluated again */
+  public long numRejected = 0;
+
+  /** work space of the evaluations of each thread */
+  private FCTPbas.moveData[] work;
+
+  /**
+   * Constructor
+   *
+   * @param inst     instance whose current solution is improved
+   * @param nthreads number of threads
+   */
+  public FCTPspecLS( FCTPbas inst, int nthreads )
+  {
+    this.inst = inst;
+    this.nthreads = Math.max( 1, nthreads );
+    work = new FCTPbas.moveData[this.nthreads];
+    for ( int w=0; w < this.nthreads; w++ ) work[w] = inst.newMoveData( );
+  }
+
+  /**
+   * Applies improving basic exchanges to the current solution of the instance.
+   *
+   * @param consider  only non-basic arcs for which consider.test( arc ) is true are evaluated
+   * @param maxRounds maximum number of rounds that end with a move
+   * @param onCommit  if not null, onCommit.accept( arc ) is called for each arc that enters the basis
+   *
+   * @return number of basic exchanges applied
+   */
+  public int descend( IntPredicate consider, int maxRounds, IntConsumer onCommit )
+  {
+    int narcs = inst.narcs;
+    int pos = inst.randgen.nextInt( narcs );
+    int moves = 0;
+    for ( int round=0; round < maxRounds; round++ )
+    {
+      // Let the threads scan their ranges of arcs
+      AtomicBoolean found = new AtomicBoolean( false );
+      List<Callable<int[]>> tasks = new ArrayList<Callable<int[]>>( nthreads );
+      for ( int w=0; w < nthreads; w++ )
+      {
+        final int first = pos + (int)( (long)w*narcs/nthreads );
+        final int len = (int)( (long)(w+1)*narcs/nthreads - (long)w*narcs/nthreads );
+        final FCTPbas.moveData mv = work[w];
+        tasks.add( () -> scanRange( consider, first, len, found, mv ) );
+      }
+      List<int[]> res = new ArrayList<int[]>( nthreads );
+      try
+      {
+        for ( Future<int[]> f : FCTPbas.getScanPool( ).invokeAll( tasks ) ) res.add( f.get( ) );
+      }
+      catch ( InterruptedException exc )
+      {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException( exc );
+      }
+      catch ( ExecutionException exc )
+      {
+        Throwable cause = exc.getCause();
+        if ( cause instanceof RuntimeException ) throw (RuntimeException)cause;
+        if ( cause instanceof Error ) throw (Error)cause;
+        throw new RuntimeException( cause );
+      }
+      numRounds++;
+      for ( int[] r : res ) numEvals += r[1];
+      if ( ! found.get( ) ) break; // local optimum
+
+      // Apply the proposals that are still improving
+      for ( int[] r : res )
+      {
+        int arc = r[0];
+        if ( ( arc >= 0 ) && ( inst.getCostSav( arc ) > FCTPparam.tolval ) )
+        {
+          inst.RememberMove( );
+          inst.DoMove( );
+          if ( onCommit != null ) onCommit.accept( arc );
+          moves++;
+          numCommits++;
+          pos = arc+1;
+        }
+        else
+        {
+          if ( arc >= 0 ) numRejected++;
+          numWasted += r[1];
+        }
+      }
+      pos %= narcs;
+    }
+    return( moves );
+  }
+
+  /**
+   * Scans the arcs first, ..., first+len-1 (modulo narcs) until an improving arc is found or
+   * another thread has found one
+   *
+   * @param mv work space of the evaluations (one per thread)
+   * @return array of the improving arc found (-1 if none) and the number of evaluations
+   */
+  private int[] scanRange( IntPredicate consider, int first, int len, AtomicBoolean found, FCTPbas.moveData mv )
+  {
+    int evals = 0;
+    for ( int k=0; ( k < len ) && ! found.get( ); k++ )
+    {
+      int arc = ( first + k ) % inst.narcs;
+      if ( ( inst.solution.arc_stat[arc] == inst.BASIC ) || ! consider.test( arc ) ) continue;
+      evals++;
+      if ( inst.evalCostSav( arc, mv ) > FCTPparam.tolval )
+      {
+        found.set( true );
+        return( new int[] { arc, evals } );
+      }
+    }
+    return( new int[] { -1, evals } );
+  }
+
+  /** Returns a summary of the counters */
+  public String toString( )
+  {
+    double wasted = ( numEvals > 0 ) ? 100.0*numWasted/numEvals : 0.0;
+    return( String.format( "Speculative LS: %d rounds, %d moves, %d rejected proposals, %d evaluations (%.1f%% wasted)",
+                           numRounds, numCommits, numRejected, numEvals, wasted ) );
+  }
+
+}
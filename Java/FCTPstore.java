@@ -0,0 +1,237 @@
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * On-disk store of the best known solutions of FCTP instances. Solutions are kept in
+ * an append-only log file; every record consists of the instance fingerprint (see
+ * FCTPbas.fingerprint) followed by the solution in binary format (see
+ * FCTPsol.writeBinary). A small index file maps each fingerprint to the position of its
+ * best record in the log and to the record's objective value. The index also records
+ * the length of the log it covers, so that records appended later (or an index that got
+ * lost) are recovered by scanning the log's tail. Appending is done under a file lock,
+ * so that several processes may share the same store.
+ *
+ * @version 19/10/2026
+ */
+public class FCTPstore
+{
+  /** Constant: name of the log file within the store's directory */
+  public static final String LOGFILE = "solutions.log";
+
+  /** Constant: name of the index file within the store's directory */
+  public static final String INDEXFILE = "solutions.idx";
+
+  /** Constant: magic number at the start of the index file */
+  private static final int IDXMAGIC = 0x46494458; // "FIDX"
+
+  /** log file with the solution records */
+  private File logFile;
+
+  /** index file */
+  private File idxFile;
+
+  /** length of the log file covered by the index in memory */
+  private long logLength = 0;
+
+  /** offset[fingerprint] = position of the best record of this instance in the log */
+  private HashMap<Long,Long> offset = new HashMap<Long,Long>();
+
+  /** cost[fingerprint] = objective value of the best record of this instance */
+  private HashMap<Long,Double> cost = new HashMap<Long,Double>();
+
+  /**
+   * Constructor: opens the store in directory "dir" (which is created if it does not exist)
+   *
+   * @param dir directory of the store
+   */
+  public FCTPstore( String dir ) throws IOException
+  {
+    new File( dir ).mkdirs();
+    logFile = new File( dir, LOGFILE );
+    idxFile = new File( dir, INDEXFILE );
+    readIndex( );
+    scanLog( );
+  }
+
+  /**
+   * Reads the index file if it exists and is consistent with the log file
+   */
+  private void readIndex( ) throws IOException
+  {
+    if ( !idxFile.exists() ) return;
+    DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( idxFile ) ) );
+    try
+    {
+      if ( in.readInt() != IDXMAGIC ) return;
+      long len = in.readLong();
+      if ( len > logFile.length() ) return; // log was replaced: rebuild index from log
+      int cnt = in.readInt();
+      for ( int k=0; k < cnt; k++ )
+      {
+        long fp = in.readLong();
+        offset.put( fp, in.readLong() );
+        cost.put( fp, in.readDouble() );
+      }
+      logLength = len;
+    }
+    catch ( EOFException exc )
+    {
+      // incomplete index: rebuild it from the log
+      offset.clear();
+      cost.clear();
+      logLength = 0;
+    }
+    finally
+    {
+      in.close();
+    }
+  }
+
+  /**
+   * Scans the records appended to the log after position logLength and updates the
+   * index in memory. An incomplete record at the end of the log is ignored.
+   */
+  private void scanLog( ) throws IOException
+  {
+    long len = logFile.length();
+    if ( len <= logLength ) return;
+    FileInputStream fis = new FileInputStream( logFile );
+    DataInputStream in = new DataInputStream( new BufferedInputStream( fis, 1 << 16 ) );
+    try
+    {
+      long pos = logLength;
+      fis.getChannel().position( pos );
+      while ( pos + 28 <= len )
+      {
+        long fp = in.readLong();
+        in.readInt(); // m
+        in.readInt(); // n
+        double val = in.readDouble();
+        int k = in.readInt();
+        long end = pos + 28 + 8L*k;
+        if ( end > len ) break;
+        in.skipBytes( 8*k );
+        Double old = cost.get( fp );
+        if ( ( old == null ) || ( val < old ) )
+        {
+          offset.put( fp, pos );
+          cost.put( fp, val );
+        }
+        pos = end;
+      }
+      logLength = pos;
+    }
+    finally
+    {
+      in.close();
+    }
+  }
+
+  /**
+   * Writes the index in memory to a temporary file and moves it over the index file
+   */
+  private void writeIndex( ) throws IOException
+  {
+    File tmp = new File( idxFile.getPath()+".tmp" );
+    DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tmp ) ) );
+    out.writeInt( IDXMAGIC );
+    out.writeLong( logLength );
+    out.writeInt( offset.size() );
+    for ( Map.Entry<Long,Long> e : offset.entrySet() )
+    {
+      out.writeLong( e.getKey() );
+      out.writeLong( e.getValue() );
+      out.writeDouble( cost.get( e.getKey() ) );
+    }
+    out.close();
+    Files.move( tmp.toPath(), idxFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+  }
+
+  /**
+   * Returns the number of instances with a solution in the store
+   */
+  public int size( )
+  {
+    return( offset.size() );
+  }
+
+  /**
+   * Returns the objective value of the best stored solution of an instance
+   *
+   * @param fp fingerprint of the instance
+   * @return objective value or Double.MAX_VALUE if the store contains no solution
+   */
+  public double getCost( long fp )
+  {
+    Double val = cost.get( fp );
+    return( ( val == null ) ? Double.MAX_VALUE : val );
+  }
+
+  /**
+   * Reads the best stored solution of an instance into a solution object. Only flows
+   * and arc status are set; use FCTPbas.setStoredSolution to set up the basis.
+   *
+   * @param fp  fingerprint of the instance
+   * @param sol solution object the stored solution is written to
+   * @return true if a solution was found
+   */
+  public boolean get( long fp, FCTPsol sol ) throws IOException
+  {
+    Long pos = offset.get( fp );
+    if ( pos == null ) return( false );
+    FileInputStream fis = new FileInputStream( logFile );
+    try
+    {
+      fis.getChannel().position( pos );
+      DataInputStream in = new DataInputStream( new BufferedInputStream( fis ) );
+      if ( in.readLong() != fp ) throw new IOException( "Solution store "+logFile+" is corrupted" );
+      sol.readBinary( in );
+    }
+    finally
+    {
+      fis.close();
+    }
+    return( true );
+  }
+
+  /**
+   * Appends a solution to the store if it is better than the best stored solution
+   * of the instance.
+   *
+   * @param fp  fingerprint of the instance
+   * @param sol the solution
+   * @return true if the solution was stored
+   */
+  public boolean put( long fp, FCTPsol sol ) throws IOException
+  {
+    if ( sol.totalCost >= getCost( fp ) - FCTPparam.tolval ) return( false );
+    FileOutputStream fos = new FileOutputStream( logFile, true );
+    FileLock lock = fos.getChannel().lock();
+    try
+    {
+      // Other processes may have appended records in the meantime
+      scanLog( );
+      if ( sol.totalCost >= getCost( fp ) - FCTPparam.tolval ) return( false );
+      // Remove an incomplete record left by an interrupted process
+      if ( fos.getChannel().size() > logLength ) fos.getChannel().truncate( logLength );
+      long pos = logLength;
+      DataOutputStream out = new DataOutputStream( new BufferedOutputStream( fos ) );
+      out.writeLong( fp );
+      sol.writeBinary( out );
+      out.flush();
+      offset.put( fp, pos );
+      cost.put( fp, sol.totalCost );
+      logLength = fos.getChannel().position();
+      writeIndex( );
+    }
+    finally
+    {
+      lock.release();
+      fos.close();
+    }
+    return( true );
+  }
+
+}
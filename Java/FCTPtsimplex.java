@@ -0,0 +1,501 @@
+import java.util.*;
+
+/**
+ * Transportation simplex method (MODI method) for the LP relaxation of the FCTP, that is
+ * the transportation problem with unit cost c_ij + f_ij/min(s_i,d_j) on arc (i,j). The
+ * method works directly on the bipartite arc numbering arc=i*n+j of FCTPbas and keeps the
+ * basis as a spanning tree rooted at node 0 (suppliers are nodes 0..m-1, customer j is node
+ * m+j) with predecessors, depths and node potentials. On return, the solution object of
+ * the instance holds the optimal flows and the optimal basis (arc_stat, tree_p and tree_t),
+ * so that no call to FCTPbas.setBasis is required. Costs are used as floating point
+ * numbers, that is without scaling them to integers.
+ *
+ * The initial basis is obtained by the matrix minimum method or taken from a given basic
+ * solution (warm start). The latter is useful if LPs that differ only in the costs are solved
+ * repeatedly: the basis of a basic solution only depends on supplies and demands and thus
+ * stays primal feasible, so that after a small change of the costs the previous optimal basis
+ * is re-optimised by a few primal pivots. Entering arcs are chosen by
+ * partial pricing: the arcs are scanned in blocks of about sqrt(narcs) arcs, and the arc of
+ * most negative reduced cost in the first block containing such an arc enters the basis.
+ * Among the blocking arcs, the leaving arc is the last one met when traversing the cycle
+ * from its apex in the direction of the entering arc.
+ *
+ * @version 19/10/2026
+ */
+public class FCTPtsimplex
+{
+  /** instance the LP relaxation of which is solved */
+  private FCTPbas inst;
+
+  /** number of suppliers, customers, nodes and arcs */
+  private int m, n, nnodes, narcs;
+
+  /** linearised unit cost of the arcs */
+  private double[] cost;
+
+  /** pred[node] = predecessor of node in the basis tree (-1 for the root) */
+  private int[] pred;
+
+  /** depth[node] = depth of node in the basis tree */
+  private int[] depth;
+
+  /** node potentials: cost[i*n+j] = pot[i] + pot[m+j] for basic arcs (i,j) */
+  private double[] pot;
+
+  /** adj[node][0..deg[node]-1] = neighbours of node in the basis tree */
+  private int[][] adj;
+  private int[] deg;
+
+  /** work space: stack of the depth first search, remaining supply/demand, arcs sorted by cost
+      and buffer and counters of the radix sort */
+  private int[] stack;
+  private int[] rest;
+  private long[] order;
+  private long[] buffer;
+  private int[] count;
+
+  /** size of a pricing block and start of the next block */
+  private int blockSize;
+  private int nextArc;
+
+  /** number of pivots done by the last call to solve */
+  private int numPivots;
+
+  /** optimal objective value of the LP relaxation found by the last call to solve */
+  private double objVal;
+
+  /**
+   * Constructor
+   *
+   * @param inst the FCTP instance
+   */
+  public FCTPtsimplex( FCTPbas inst )
+  {
+    this.inst = inst;
+    m = inst.m;
+    n = inst.n;
+    nnodes = m+n;
+    narcs = m*n;
+    cost = new double[narcs];
+    pred = new int[nnodes];
+    depth = new int[nnodes];
+    pot = new double[nnodes];
+    deg = new int[nnodes];
+    adj = new int[nnodes][];
+    for ( int node=0; node < nnodes; node++ ) adj[node] = new int[4];
+    stack = new int[nnodes];
+    rest = new int[nnodes];
+    blockSize = Math.max( 32, (int)Math.sqrt( narcs ) );
+  }
+
+  /** Returns the number of pivots done by the last call to solve */
+  public int getPivots( )
+  {
+    return( numPivots );
+  }
+
+  /** Returns the optimal objective value of the LP relaxation */
+  public double getObjVal( )
+  {
+    return( objVal );
+  }
+
+  /**
+   * Solves the LP relaxation and stores the optimal basic solution in inst.solution
+   * (flows, arc status, basis tree and FCTP cost of the solution).
+   *
+   * @return false if the problem is not balanced or if the pivot limit was exceeded
+   *         (in which case inst.solution is not valid)
+   */
+  public boolean solve( )
+  {
+    return( solve( null ) );
+  }
+
+  /**
+   * Solves the LP relaxation starting from the basis of the basic solution "start" and
+   * stores the optimal basic solution in inst.solution. If start is null or not a basic
+   * solution of the instance (m+n-1 basic arcs forming a spanning tree and carrying all
+   * the flow, supplies and demands met), the matrix minimum basis is used instead.
+   *
+   * @param start basic solution whose basis is used as initial basis (may be inst.solution)
+   * @return false if the problem is not balanced or if the pivot limit was exceeded
+   *         (in which case inst.solution is not valid)
+   */
+  public boolean solve( FCTPsol start )
+  {
+    int[] flow = inst.solution.flow;
+    int[] stat = inst.solution.arc_stat;
+    for ( int i=0; i < m; i++ ) for ( int j=0; j < n; j++ )
+    {
+      int arc = i*n+j;
+      int cap = Math.min( inst.supply[i], inst.demand[j] );
+      cost[arc] = inst.gettcost( arc ) + inst.getfcost( arc )/Math.max( 1, cap );
+    }
+    boolean warm = ( start != null ) && loadBasis( start, flow, stat );
+    if ( ! ( warm || initBasis( flow, stat ) ) ) return( false );
+
+    // Pivot until no arc of negative reduced cost is left
+    numPivots = 0;
+    long maxPivots = 100L*nnodes + narcs;
+    nextArc = 0;
+    for ( int arc = price( stat ); arc >= 0; arc = price( stat ) )
+    {
+      if ( ++numPivots > maxPivots ) return( false );
+      pivot( arc, flow, stat );
+    }
+
+    objVal = 0.0;
+    for ( int arc=0; arc < narcs; arc++ ) if ( flow[arc] > 0 ) objVal += cost[arc]*flow[arc];
+    setSubtreeSizes( );
+    if ( inst.costs == null )
+      inst.solution.ComputeCost( inst.fcost, inst.tcost );
+    else
+      inst.solution.ComputeCost( inst.costs );
+    return( true );
+  }
+
+  /**
+   * Determines an initial basic solution by the matrix minimum method: the cheapest arc
+   * whose supplier and customer are not yet removed gets as much flow as possible, and
+   * then the supplier or the customer is removed (only one of both if both are exhausted).
+   * This gives m+n-1 basic arcs forming a spanning tree.
+   *
+   * @return false if total supply and demand differ
+   */
+  private boolean initBasis( int[] flow, int[] stat )
+  {
+    long tot = 0;
+    for ( int i=0; i < m; i++ ) tot += inst.supply[i];
+    for ( int j=0; j < n; j++ ) tot -= inst.demand[j];
+    if ( tot != 0 ) return( false );
+
+    Arrays.fill( flow, 0 );
+    Arrays.fill( stat, inst.NONBAS0 );
+    Arrays.fill( deg, 0 );
+    for ( int i=0; i < m; i++ ) rest[i] = inst.supply[i];
+    for ( int j=0; j < n; j++ ) rest[m+j] = inst.demand[j];
+    sortArcs( );
+    boolean[] removed = new boolean[nnodes];
+    int rows = m;
+    int cols = n;
+    int pos = 0;
+    for ( int nb=0; nb < nnodes-1; )
+    {
+      if ( pos == narcs ) return( false );
+      int arc = (int)order[pos++];
+      int i = arc/n;
+      int j = m + arc%n;
+      if ( removed[i] || removed[j] ) continue;
+      int f = Math.min( rest[i], rest[j] );
+      flow[arc] = f;
+      stat[arc] = inst.BASIC;
+      addEdge( i, j );
+      addEdge( j, i );
+      nb++;
+      rest[i] -= f;
+      rest[j] -= f;
+      if ( ( rest[i] == 0 ) && ( ( rest[j] > 0 ) || ( rows > 1 ) ) )
+      {
+        removed[i] = true;
+        rows--;
+      }
+      else
+      {
+        removed[j] = true;
+        cols--;
+      }
+    }
+
+    // Predecessors, depths and potentials
+    pred[0] = -1;
+    depth[0] = 0;
+    pot[0] = 0.0;
+    hang( 0 );
+    return( true );
+  }
+
+  /**
+   * Takes the basis of the solution "start" as initial basis.
+   *
+   * @return false if start is not a basic solution of the instance
+   */
+  private boolean loadBasis( FCTPsol start, int[] flow, int[] stat )
+  {
+    if ( start.flow.length != narcs ) return( false );
+    if ( start.flow != flow )
+    {
+      System.arraycopy( start.flow, 0, flow, 0, narcs );
+      System.arraycopy( start.arc_stat, 0, stat, 0, narcs );
+    }
+    Arrays.fill( deg, 0 );
+    Arrays.fill( rest, 0 );
+    int nb = 0;
+    for ( int i=0; i < m; i++ ) for ( int j=0; j < n; j++ )
+    {
+      int arc = i*n+j;
+      if ( flow[arc] < 0 ) return( false );
+      if ( stat[arc] == inst.BASIC )
+      {
+        if ( ++nb == nnodes ) return( false );
+        addEdge( i, m+j );
+        addEdge( m+j, i );
+      }
+      else if ( ( stat[arc] != inst.NONBAS0 ) || ( flow[arc] > 0 ) ) return( false );
+      rest[i] += flow[arc];
+      rest[m+j] += flow[arc];
+    }
+    if ( nb != nnodes-1 ) return( false );
+    for ( int i=0; i < m; i++ ) if ( rest[i] != inst.supply[i] ) return( false );
+    for ( int j=0; j < n; j++ ) if ( rest[m+j] != inst.demand[j] ) return( false );
+
+    // m+n-1 arcs form a spanning tree if they connect all nodes
+    Arrays.fill( depth, -1 );
+    depth[0] = 0;
+    int top = 0;
+    int reached = 1;
+    stack[top++] = 0;
+    while ( top > 0 )
+    {
+      int node = stack[--top];
+      for ( int k=0; k < deg[node]; k++ ) if ( depth[adj[node][k]] < 0 )
+      {
+        depth[adj[node][k]] = 0;
+        stack[top++] = adj[node][k];
+        reached++;
+      }
+    }
+    if ( reached < nnodes ) return( false );
+
+    // Predecessors, depths and potentials
+    pred[0] = -1;
+    depth[0] = 0;
+    pot[0] = 0.0;
+    hang( 0 );
+    return( true );
+  }
+
+  /**
+   * Sorts the arcs by cost into the array "order" (arc = (int)order[k]). Costs are compared 
+   * in single precision, which suffices for a start basis. Since the bits of a non-negative 
+   * float are ordered like the float values, a radix sort with two passes over 16 bits each 
+   * is used.
+   */
+  private void sortArcs( )
+  {
+    if ( order == null )
+    {
+      order = new long[narcs];
+      buffer = new long[narcs];
+      count = new int[1 << 16];
+    }
+    for ( int arc=0; arc < narcs; arc++ ) 
+      order[arc] = ( (long)Float.floatToIntBits( (float)Math.max( 0.0, cost[arc] ) ) << 32 ) | arc;
+    radixPass( order, buffer, 32 );
+    radixPass( buffer, order, 48 );
+  }
+
+  /** Stable counting sort of src into dst by the 16 bits of the keys starting at bit "shift" */
+  private void radixPass( long[] src, long[] dst, int shift )
+  {
+    Arrays.fill( count, 0 );
+    for ( int k=0; k < narcs; k++ ) count[(int)( src[k] >>> shift ) & 0xFFFF]++;
+    for ( int b=0, sum=0; b < count.length; b++ )
+    {
+      int c = count[b];
+      count[b] = sum;
+      sum += c;
+    }
+    for ( int k=0; k < narcs; k++ ) dst[count[(int)( src[k] >>> shift ) & 0xFFFF]++] = src[k];
+  }
+
+  /** Adds node b to the list of neighbours of node a */
+  private void addEdge( int a, int b )
+  {
+    if ( deg[a] == adj[a].length ) adj[a] = Arrays.copyOf( adj[a], 2*deg[a] );
+    adj[a][deg[a]++] = b;
+  }
+
+  /** Removes node b from the list of neighbours of node a */
+  private void removeEdge( int a, int b )
+  {
+    for ( int k=0; k < deg[a]; k++ ) if ( adj[a][k] == b )
+    {
+      adj[a][k] = adj[a][--deg[a]];
+      return;
+    }
+  }
+
+  /** Returns the arc between node a and node b */
+  private int arcOf( int a, int b )
+  {
+    return( ( a < m ) ? a*n + b-m : b*n + a-m );
+  }
+
+  /**
+   * Sets predecessors, depths and potentials of all nodes in the subtree rooted at node
+   * "root" by a depth first search (pred, depth and pot of the root must be set)
+   */
+  private void hang( int root )
+  {
+    int top = 0;
+    stack[top++] = root;
+    while ( top > 0 )
+    {
+      int node = stack[--top];
+      for ( int k=0; k < deg[node]; k++ )
+      {
+        int next = adj[node][k];
+        if ( next == pred[node] ) continue;
+        pred[next] = node;
+        depth[next] = depth[node]+1;
+        pot[next] = cost[arcOf( node, next )] - pot[node];
+        stack[top++] = next;
+      }
+    }
+  }
+
+  /**
+   * Partial pricing: returns the arc of most negative reduced cost in the first block of
+   * arcs (scanned cyclically from nextArc) that contains an arc of negative reduced cost.
+   * Returns -1 if there is no such arc.
+   */
+  private int price( int[] stat )
+  {
+    int best = -1;
+    double bestRc = 0.0;
+    int arc = nextArc;
+    int i = arc/n;
+    int j = arc%n;
+    double ui = pot[i];
+    for ( int cnt=0; cnt < narcs; )
+    {
+      int end = Math.min( cnt + blockSize, narcs );
+      for ( ; cnt < end; cnt++ )
+      {
+        double rc = cost[arc] - ui - pot[m+j];
+        if ( ( rc < bestRc ) && ( stat[arc] != inst.BASIC ) && ( rc < -1.0E-9*Math.max( 1.0, cost[arc] ) ) )
+        {
+          bestRc = rc;
+          best = arc;
+        }
+        arc++;
+        if ( ++j == n )
+        {
+          j = 0;
+          if ( ++i == m ) 
+          {
+            i = 0;
+            arc = 0;
+          }
+          ui = pot[i];
+        }
+      }
+      if ( best >= 0 ) break;
+    }
+    nextArc = arc;
+    return( best );
+  }
+
+  /**
+   * Lets arc "in" enter the basis: determines the cycle, the leaving arc, changes the flows
+   * and updates the basis tree.
+   */
+  private void pivot( int in, int[] flow, int[] stat )
+  {
+    int a = in/n;     // supplier of the entering arc
+    int b = m + in%n; // customer of the entering arc
+
+    // Walk from a and b up to the apex of the cycle. Arcs on both paths are decreased
+    // and increased alternately, starting with a decrease at a and at b.
+    int theta = Integer.MAX_VALUE;
+    int leave = -1;        // node whose arc to its predecessor leaves the basis
+    boolean sideA = false; // true if the leaving arc is on the path from a
+    int thetaA = Integer.MAX_VALUE, leaveA = -1;
+    int thetaB = Integer.MAX_VALUE, leaveB = -1;
+    int x = a, y = b;
+    boolean decX = true, decY = true;
+    while ( x != y )
+    {
+      if ( depth[x] >= depth[y] )
+      {
+        if ( decX )
+        { // first blocking arc met from a is the last one met from the apex
+          int f = flow[arcOf( x, pred[x] )];
+          if ( f < thetaA ) { thetaA = f; leaveA = x; }
+        }
+        decX = !decX;
+        x = pred[x];
+      }
+      else
+      {
+        if ( decY )
+        { // last blocking arc met from b is the last one met from the apex
+          int f = flow[arcOf( y, pred[y] )];
+          if ( f <= thetaB ) { thetaB = f; leaveB = y; }
+        }
+        decY = !decY;
+        y = pred[y];
+      }
+    }
+    if ( thetaB <= thetaA )
+    {
+      theta = thetaB;
+      leave = leaveB;
+    }
+    else
+    {
+      theta = thetaA;
+      leave = leaveA;
+      sideA = true;
+    }
+    int apex = x;
+
+    // Change the flows on the cycle
+    flow[in] = theta;
+    stat[in] = inst.BASIC;
+    if ( theta > 0 )
+    {
+      boolean dec = true;
+      for ( x = a; x != apex; x = pred[x], dec = !dec ) flow[arcOf( x, pred[x] )] += dec ? -theta : theta;
+      dec = true;
+      for ( y = b; y != apex; y = pred[y], dec = !dec ) flow[arcOf( y, pred[y] )] += dec ? -theta : theta;
+    }
+
+    // Exchange the arcs in the basis tree and re-hang the subtree separated by the leaving arc
+    int p = pred[leave];
+    stat[arcOf( leave, p )] = inst.NONBAS0;
+    removeEdge( leave, p );
+    removeEdge( p, leave );
+    addEdge( a, b );
+    addEdge( b, a );
+    int root = sideA ? a : b;
+    int father = sideA ? b : a;
+    pred[root] = father;
+    depth[root] = depth[father]+1;
+    pot[root] = cost[in] - pot[father];
+    hang( root );
+  }
+
+  /**
+   * Stores the basis tree in inst.solution: predecessors in tree_p and subtree sizes in tree_t
+   */
+  private void setSubtreeSizes( )
+  {
+    int[] tree_p = inst.solution.tree_p;
+    int[] tree_t = inst.solution.tree_t;
+    // Bucket sort the nodes according to their depth
+    int[] first = new int[nnodes+1];
+    for ( int node=0; node < nnodes; node++ ) first[depth[node]+1]++;
+    for ( int d=1; d <= nnodes; d++ ) first[d] += first[d-1];
+    int[] order = stack;
+    for ( int node=0; node < nnodes; node++ ) order[first[depth[node]]++] = node;
+    for ( int node=0; node < nnodes; node++ )
+    {
+      tree_p[node] = pred[node];
+      tree_t[node] = 1;
+    }
+    for ( int k=nnodes-1; k > 0; k-- ) tree_t[pred[order[k]]] += tree_t[order[k]];
+  }
+
+}
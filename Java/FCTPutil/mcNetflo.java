@@ -82,30 +82,30 @@ public class mcNetflo
   }
   
   /** number of nodes of the graph, labeled from 1 to nodes */
-  private static int nodes;
+  private int nodes;
   
   /** number of edges in the graph */
-  private static int edges; 
+  private int edges; 
   
   /** number nonzero flow requirement at the nodes */
-  private static int numdemand;
+  private int numdemand;
   
   /** 
    * nodedemand[i][1] is the flow requirement at node nodedemand[i][0] for 
    * i = 1, 2, …, nodedemand. The supply at a node will be positive flow 
    * requirement, and demand at a node will be negative flow requirement.
    */
-  private static int[][] nodedemand;
+  private int[][] nodedemand;
   
   /** (nodei[p],nodej[p]) is the p-th  edge in the graph, p=1,2,…,edges. */   
-  private static int[] nodei;
-  private static int[] nodej;
+  private int[] nodei;
+  private int[] nodej;
   
   /** 
    * arccost[i] is the cost on edge i, for i = 1, 2, …, edges; and 
    * arccost[0] is the total cost of the optimal solution.
    */
-  private static int[] arccost;
+  private long[] arccost;
   
   /** 
    * upbound[i] is the upper bound flow requirement of edge i for i = 1, 2, …, edges. 
@@ -113,43 +113,43 @@ public class mcNetflo
    * A −1 value of upper bound on an edge denotes that edge to have an upper bound 
    * value of zero.
    */
-  private static int[] upbound;
+  private long[] upbound;
   
   /**
    * lowbound[i] is the lower bound flow requirement of edge i for i = 1, 2, …, edges.
    */
-  private static int[] lowbound;
+  private long[] lowbound;
   
   /**
    * arcsol[0][0] is the number of edges that has nonzero flow value in optimal solution; 
    * edge i is from node arcsol[0][i] to node arcsol[1][i], for i = 1, 2, …, arcsol[0][0].
    */
-  private static int[][] arcsol;
+  private int[][] arcsol;
 
   /**
    * flowsol[i] is the value of the flow on edge i in the optimal solution, 
    * for i = 1, 2, …, edges
    */
-  private static int[] flowsol;
+  private int[] flowsol;
   
   /**
    ** arcid[n1][n2] is the identifier of the arc from node n1 to node n2
    *  0 <= n1,n2 < nodes
    */
-  private static int[][] arcid;
+  private int[][] arcid;
 
   /** Scale value applied to arc costs in order to make them integer valued */  
-  private static double scale;
+  private double scale;
   private static final int iscale = 1000; 
   
   /** Numerical tolerance value */
   private static final double tolval = 1.0E-5;
   
   /** Optimal objective function value as floating point number */
-  private static double objval;
+  private double objval;
   
   /** Status of the optimization result */
-  private static int status;
+  private int status;
   
   /** Returns the optimal objective function value */
   public double GetObjVal() { return ( objval ); }
@@ -157,13 +157,102 @@ public class mcNetflo
   /** Returns the status of the optimization */
   public int GetStatus() { return ( status ); } 
 
+  /** Work arrays of minCostNetworkFlow, kept between calls of the solve methods */
+  private int[] wpred, wsucc, wdist, wsptpt, warcnum, whead;
+  private long[] wflow, wdual, wcost, wroom, wleast;
+
+//------------------------------------------------------------------------------
+  /**
+   * Constructor of class mcNetflo. Creates a solver object without solving a 
+   * problem. Problems are then solved by calling one of the solve methods. The
+   * object keeps its arrays between the calls, which are only enlarged if a
+   * problem is larger than the previous ones. Different objects do not share any
+   * data, so that different threads can solve problems at the same time as long
+   * as each thread uses its own object.
+   */
+  public mcNetflo ( ) { }
+
+//------------------------------------------------------------------------------
+  /**
+   * Constructor of class mcNetflo. Solves linear min-cost network flow problem.
+   * See solve( n, m, supply, arcs ).
+   */
+  public mcNetflo ( int n, int m, int[] supply, mcArcs[] arcs )
+  {
+    solve( n, m, supply, arcs );
+  }
+
+//------------------------------------------------------------------------------
+  /**
+   * Constructor of class mcNetflo. Solves linear transportation problem of 
+   * Hitchcock type. See solve( n, m, s, d, c, flow ).
+   */
+  public mcNetflo ( int n, int m, int[] s, int[] d, double[] c, int[] flow )
+  {
+    solve( n, m, s, d, c, flow );
+  }
+
+//------------------------------------------------------------------------------
+  /**
+   * Constructor of class mcNetflo. Solves linear relaxation of a fixed charge 
+   * transportation problem. See solve( n, m, s, d, c, f, flow ).
+   */
+  public mcNetflo ( int n, int m, int[] s, int[] d, double[] c, double[] f, int[] flow )
+  {
+    solve( n, m, s, d, c, f, flow );
+  }
+
+//------------------------------------------------------------------------------
+  /**
+   * Returns array a if it has at least len elements and otherwise a new array
+   * of length len. The elements 0, ..., len-1 of the returned array are zero.
+   */
+  private static int[] workArray( int[] a, int len )
+  {
+    if ( ( a == null ) || ( a.length < len ) ) return ( new int[len] );
+    Arrays.fill( a, 0, len, 0 );
+    return ( a );
+  }
+
+  /** Same as workArray( int[], int ) for arrays of long integers */
+  private static long[] workArray( long[] a, int len )
+  {
+    if ( ( a == null ) || ( a.length < len ) ) return ( new long[len] );
+    Arrays.fill( a, 0, len, 0L );
+    return ( a );
+  }
+
+//------------------------------------------------------------------------------
+  /** Provides the array nodedemand for the current number of nodes */
+  private void allocNodes ( )
+  {
+    if ( ( nodedemand == null ) || ( nodedemand.length < nodes+1 ) ) 
+      nodedemand = new int[nodes+1][2];
+    else for ( int p=0; p <= nodes; p++ ) nodedemand[p][0] = nodedemand[p][1] = 0;
+  }
+
+//------------------------------------------------------------------------------
+  /** Provides the edge arrays and the solution arrays for the current number of edges */
+  private void allocEdges ( )
+  {
+    nodei = workArray( nodei, edges+1 );
+    nodej = workArray( nodej, edges+1 );
+    arccost = workArray( arccost, edges+1 );
+    upbound = workArray( upbound, edges+1 );
+    lowbound = workArray( lowbound, edges+1 );
+    flowsol = workArray( flowsol, edges+1 );
+    if ( arcsol == null ) arcsol = new int[2][];
+    arcsol[0] = workArray( arcsol[0], edges+1 );
+    arcsol[1] = workArray( arcsol[1], edges+1 );
+  }
+
 //------------------------------------------------------------------------------
   /** 
    * Retrieves the flow solution for a min-cost network flow problem from the data 
    * structure (arcsol,flowsol) and stores it in integer array flow. Returns the 
    * objective function value.
    */
-  private static double Getflows( mcArcs[] arcs )
+  private double Getflows( mcArcs[] arcs )
   {
     double totc = 0.0;
     int nparcs = arcsol[0][0]; // arcs with positive flow
@@ -185,7 +274,7 @@ public class mcNetflo
    * structure (arcsol,flowsol) and stores it in integer array flow. Returns the 
    * objective function value.
    */
-  private static double Getflows( int m, int n, double[] c, int[] flow )
+  private double Getflows( int m, int n, double[] c, int[] flow )
   {
     double totc = 0.0;
     int nparcs = arcsol[0][0]; // arcs with positive flow
@@ -207,7 +296,7 @@ public class mcNetflo
    * the data structure (arcsol,flowsol) and stores it in integer array flow. 
    * Returns the objective function value (i.e. flow + fixed cost)
    */
-  private static double Getflows( int m, int n, double[] c, double[] f, int[] flow )
+  private double Getflows( int m, int n, double[] c, double[] f, int[] flow )
   {
     double totc = 0.0;
     int nparcs = arcsol[0][0]; // arcs with positive flow
@@ -225,14 +314,15 @@ public class mcNetflo
 
 //------------------------------------------------------------------------------
   /**
-   * Constructor of class mcNetflo. Solves linear min-cost network flow problem.
+   * Solves linear min-cost network flow problem.
    *
    * @param n - number of nodes
    * @param m - number of arcs
    * @param supply - supply[i] is the supply of node i=0,...,n-1
    * @param arcs - array of network arcs i=0, ..., m-1
+   * @return - the status of the optimization (see minCostNetworkFlow)
    */
-  public mcNetflo ( int n, int m, int[] supply, mcArcs[] arcs )
+  public int solve ( int n, int m, int[] supply, mcArcs[] arcs )
   {
     scale = 1.0;
     // Check if there are non-integer flow cost values
@@ -253,7 +343,7 @@ public class mcNetflo
               
     // Set node requirements
     numdemand = 0;
-    nodedemand = new int[nodes+1][2];
+    allocNodes( );
     for ( int node=0; node < n; node++ ) if ( supply[node] !=0 )
     {
       nodedemand[++numdemand][0] = node+1;
@@ -261,37 +351,30 @@ public class mcNetflo
     }
     
     // Set arc cost, lower and upper bounds on flows
-    nodei = new int[edges+1];
-    nodej = new int[edges+1];
-    arccost = new int[edges+1];
-    upbound = new int[edges+1];
-    lowbound = new int[edges+1];
-    arcid = new int[nodes][nodes];
+    allocEdges( );
+    if ( ( arcid == null ) || ( arcid.length < nodes ) ) arcid = new int[nodes][nodes];
     for ( int arc=0; arc < m; arc++ )
     {
       int a = arc+1; 
       nodei[a] = arcs[arc].tail+1;
       nodej[a] = arcs[arc].head+1;
-      arccost[a] = (int) ( arcs[arc].cost*scale + tolval );
+      arccost[a] = (long) ( arcs[arc].cost*scale + tolval );
       upbound[a] = arcs[arc].ub;
       lowbound[a] = arcs[arc].lb;
       arcid[arcs[arc].tail][arcs[arc].head] = arc;
     }  
     
     // now use the minCostNetworkFlow method for computing optimal flows
-    flowsol= new int[edges+1];
-    arcsol = new int[2][edges+1];
     status = minCostNetworkFlow ( );
     
     // Retrieve the optimal solution
     if ( status == 0 ) objval = Getflows( arcs ); 
-       
+    return ( status );   
   }
 
 //------------------------------------------------------------------------------
   /**
-   * Constructor of class mcNetflo. Solves linear transportation problem of 
-   * Hitchcock type
+   * Solves linear transportation problem of Hitchcock type
    *
    * @param m - number of suppliers
    * @param n - number of customers 
@@ -299,8 +382,9 @@ public class mcNetflo
    * @param d - d[j] is the demand of customer j=0,..,n-1
    * @param c - c[arc], where arc=i*n+j is the unit flow cost on the arc from i to j
    * @param flow - flow[arc], where arc=i*n+j is the optimal flow on the arc from i to j
+   * @return - the status of the optimization (see minCostNetworkFlow)
    */
-  public mcNetflo ( int n, int m, int[] s, int[] d, double[] c, int[] flow )
+  public int solve ( int n, int m, int[] s, int[] d, double[] c, int[] flow )
   {
     nodes = m+n;
     edges = m*n;
@@ -318,7 +402,7 @@ public class mcNetflo
               
     // Set node requirements
     numdemand = nodes;
-    nodedemand = new int[nodes+1][2];
+    allocNodes( );
     for ( int i=0; i < m; i++ )
     {
       int ii = i+1;
@@ -333,35 +417,28 @@ public class mcNetflo
     }
       
     // Set arc cost, lower and upper bounds on flows
-    nodei = new int[edges+1];
-    nodej = new int[edges+1];
-    arccost = new int[edges+1];
-    upbound = new int[edges+1];
-    lowbound = new int[edges+1];
+    allocEdges( );
     for ( int i=0; i < m; i++ ) for ( int j=0; j < n; j++ )
     {
       int a = i*n+j+1; 
       nodei[a] = i+1;
       nodej[a] = m+j+1;
-      arccost[a] = (int) ( c[a-1]*scale + tolval );
+      arccost[a] = (long) ( c[a-1]*scale + tolval );
       upbound[a] = 0; // means uncapacitated
       lowbound[a] = 0;
     }  
     
     // now use the minCostNetworkFlow method for computing optimal flows
-    flowsol= new int[edges+1];
-    arcsol = new int[2][edges+1];
     status = minCostNetworkFlow ( );
     
     // Retrieve the objective function value
     if ( status == 0 ) objval = Getflows( m, n, c, flow ); 
-       
+    return ( status );   
   }
 
 //------------------------------------------------------------------------------
   /**
-   * Constructor of class mcNetflo. Solves linear relaxation of a fixed charge 
-   * transportation problem
+   * Solves linear relaxation of a fixed charge transportation problem
    *
    * @param m - number of suppliers
    * @param n - number of customers 
@@ -370,8 +447,9 @@ public class mcNetflo
    * @param c - c[arc], where arc=i*n+j is the unit flow cost on the arc from i to j
    * @param f - f[arc], where arc=i*n+j is fixed cost of the arc from i to j
    * @param flow - flow[arc], where arc=i*n+j is the optimal flow on the arc from i to j
+   * @return - the status of the optimization (see minCostNetworkFlow)
    */
-  public mcNetflo ( int n, int m, int[] s, int[] d, double[] c, double[] f, int[] flow )
+  public int solve ( int n, int m, int[] s, int[] d, double[] c, double[] f, int[] flow )
   {
     nodes = m+n;
     edges = m*n;
@@ -379,7 +457,7 @@ public class mcNetflo
               
     // Set node requirements
     numdemand = nodes;
-    nodedemand = new int[nodes+1][2];
+    allocNodes( );
     for ( int i=0; i < m; i++ )
     {
       int ii = i+1;
@@ -394,11 +472,7 @@ public class mcNetflo
     }
       
     // Set arc cost, lower and upper bounds on flows
-    nodei = new int[edges+1];
-    nodej = new int[edges+1];
-    arccost = new int[edges+1];
-    upbound = new int[edges+1];
-    lowbound = new int[edges+1];
+    allocEdges( );
     for ( int i=0; i < m; i++ ) for ( int j=0; j < n; j++ )
     {
       int cap = Math.min( s[i], d[j] );
@@ -406,7 +480,7 @@ public class mcNetflo
       double lcst = c[a] + f[a]/(double)cap;
       nodei[++a] = i+1;
       nodej[a] = m+j+1;
-      arccost[a] = (int) ( lcst*scale + tolval );
+      arccost[a] = (long) ( lcst*scale + tolval );
       upbound[a] = 0; // means uncapacitated
       lowbound[a] = 0;
     }
@@ -416,47 +490,45 @@ public class mcNetflo
     // for the minCostNetworkFlow() method)
     for ( int i=0; i < m; i++ )
     {
-      int imin = Integer.MAX_VALUE;
+      long imin = Long.MAX_VALUE;
       for ( int j=0; j < n; j++ ) 
       {
-        int a = i*n+j;
+        int a = i*n+j+1;
         if ( imin > arccost[a] ) imin=arccost[a];
       }  
       if ( imin > 0 )
       {
         for ( int j=0; j < n; j++ )
         {
-          int a = i*n+j; 
+          int a = i*n+j+1; 
           arccost[a] -= imin;
         }  
       }    
     }  
     for ( int j=0; j < n; j++ )
     {
-      int jmin = Integer.MAX_VALUE;
+      long jmin = Long.MAX_VALUE;
       for ( int i=0; i < m; i++ )
       {
-        int a = i*n+j;
+        int a = i*n+j+1;
         if ( arccost[a] < jmin ) jmin = arccost[a];
       }
       if ( jmin > 0 )
       {
         for ( int i=0; i < m; i++ )
         {
-          int a = i*n+j;
+          int a = i*n+j+1;
           arccost[a] -= jmin;
         }
       }  
     } 
     
     // now use the minCostNetworkFlow method for computing optimal flows
-    flowsol= new int[edges+1];
-    arcsol = new int[2][edges+1];
     status = minCostNetworkFlow ( );
     
     // Retrieve the objective function value
     if ( status == 0 ) objval = Getflows( m, n, c, f, flow );
-       
+    return ( status );   
   }
    
 //------------------------------------------------------------------------------
@@ -464,6 +536,10 @@ public class mcNetflo
   /**
    *  Function minCostNetworkFlow - Solves min-cost network flow problem
    *
+   *  Arc costs, node potentials and flow quantities are 64 bit integers. The
+   *  method uses the sum of all (scaled) arc costs and capacities as "infinite"
+   *  value, which easily exceeds the range of int on large instances.
+   *
    * @return - the method returns an integer with the following values
    *           0: optimal solution found
    *           1: Infeasible, net required flow is negative
@@ -472,26 +548,27 @@ public class mcNetflo
    *           4: Infeasible, net required flow imposed by arc flow lower
    *              bounds is negative
    */
-  private static int minCostNetworkFlow ( ) 
+  private int minCostNetworkFlow ( ) 
   {
-   int i, j, k, l, m, n, lastslackedge, solarc, temp, tmp, u, v, remain, rate;
-   int arcnam, tedges, tedges1, nodes1, nodes2, nzdemand, value, valuez;
-   int tail, ratez, tailz, trial, distdiff, olddist, treenodes, iterations;
-   int right, point, part, jpart, kpart, spare, sparez, lead, otherend, sedge;
-   int orig, load, curedge, p, q, r, vertex1, vertex2, track, spointer, focal;
-   int newpr, newlead, artedge, maxint, artedge1, ipart, distlen;
+   int i, j, k, l, lastslackedge, solarc, temp, tmp, u, v;
+   int arcnam, tedges, tedges1, nodes1, nodes2, nzdemand;
+   int tail, tailz, trial, distdiff, olddist, treenodes, iterations;
+   int right, jpart, kpart, sparez, lead, otherend, sedge;
+   int orig, curedge, p, q, r, vertex1, vertex2, track, spointer, focal;
+   int newlead, artedge, artedge1, ipart, distlen;
    int after = 0, other = 0, left = 0, newarc = 0, newtail = 0;
-   int pred[] = new int[nodes + 2];
-   int succ[] = new int[nodes + 2];
-   int dist[] = new int[nodes + 2];
-   int sptpt[] = new int[nodes + 2];
-   int flow[] = new int[nodes + 2];
-   int dual[] = new int[nodes + 2];
-   int arcnum[] = new int[nodes + 1];
-   int head[] = new int[edges * 2];
-   int cost[] = new int[edges * 2];
-   int room[] = new int[edges * 2];
-   int least[] = new int[edges * 2];
+   long m, n, point, dk = 0, remain, rate, value, valuez, ratez, part, spare, load, newpr, maxint;
+   int pred[] = wpred = workArray( wpred, nodes + 2 );
+   int succ[] = wsucc = workArray( wsucc, nodes + 2 );
+   int dist[] = wdist = workArray( wdist, nodes + 2 );
+   int sptpt[] = wsptpt = workArray( wsptpt, nodes + 2 );
+   long flow[] = wflow = workArray( wflow, nodes + 2 );
+   long dual[] = wdual = workArray( wdual, nodes + 2 );
+   int arcnum[] = warcnum = workArray( warcnum, nodes + 1 );
+   int head[] = whead = workArray( whead, edges * 2 );
+   long cost[] = wcost = workArray( wcost, edges * 2 );
+   long room[] = wroom = workArray( wroom, edges * 2 );
+   long least[] = wleast = workArray( wleast, edges * 2 );
    int rim[] = new int[3];
    int ptr[] = new int[3];
    boolean infeasible;
@@ -545,7 +622,7 @@ public class mcNetflo
    j = artedge;
    for (p = 1; p <= nodes; p++) {
     i = -i;
-    tmp = Math.max(1, dual[p]);
+    tmp = (int) Math.max(1, dual[p]);
     if (j + tmp > tedges) return 2;
     dual[p] = (i >= 0 ? j + 1 : -(j + 1));
     for (q = 1; q <= tmp; q++) {
@@ -569,7 +646,7 @@ public class mcNetflo
     if ((lowbound[p] >= maxint) || (lowbound[p] < 0) ||
      (lowbound[p] > upbound[p]))
      return 3;
-    u = dual[nodej[p]];
+    u = (int) dual[nodej[p]];
     v = Math.abs(u);
     temp = (u >= 0 ? nodes1 : -nodes1);
     if ((temp ^ head[v]) <= 0) {
@@ -653,7 +730,7 @@ public class mcNetflo
    treenodes = 0;
    focal = nodes1;
    for (p = 1; p <= nodes; p++) {
-    j = flow[p];
+    j = (int) flow[p];
     remain += j;
     if (j == 0) continue;
     if (j < 0) {
@@ -695,7 +772,7 @@ public class mcNetflo
       break;
      }
      // look for sources
-     trial = dual[tail];
+     trial = (int) dual[tail];
      lead = head[trial];
      other = (lead >= 0 ? nodes1 : -nodes1);
      do {
@@ -755,12 +832,12 @@ public class mcNetflo
       room[newarc] = -room[newarc];
       orig = Math.abs(head[newarc]);
       flow[orig] -= flow[tail];
-      k = maxint;
+      dk = maxint;
       removelist = true;
      } else {
       // search for transshipment nodes
       artarc = false;
-      trial = dual[tail];
+      trial = (int) dual[tail];
       lead = head[trial];
       newprz = false;
       do {
@@ -821,7 +898,7 @@ public class mcNetflo
     }
     flowz = false;
     if (!removelist)
-     k = 0;
+     dk = 0;
     else
      removelist = false;
     pred[nodes1] = pred[tail];
@@ -838,8 +915,8 @@ public class mcNetflo
      focal = succ[focal];
      l = dist[focal];
      dist[focal] = l + j;
-     k -= dual[focal];
-     dual[focal] = k;
+     dk -= dual[focal];
+     dual[focal] = dk;
     } while (l != -1);
     succ[focal] = i;
     treenodes++;
@@ -865,7 +942,7 @@ public class mcNetflo
          if (otherend == 0) {
           i = orig;
           j = tail;
-          k = m;
+          dk = m;
           l = trial;
           newpr = m;
          }
@@ -873,7 +950,7 @@ public class mcNetflo
          if (otherend != 0) {
           i = tail;
           j = orig;
-          k = -m;
+          dk = -m;
           l = -trial;
           newpr = m;
          }
@@ -916,7 +993,7 @@ public class mcNetflo
     succ[j] = succ[i];
     succ[i] = j;
     dist[j] = dist[i] + 1;
-    dual[j] = dual[i] - k;
+    dual[j] = dual[i] - dk;
     newarc = Math.abs(l);
     room[newarc] = -room[newarc];
     treenodes++;
@@ -982,7 +1059,7 @@ public class mcNetflo
      }
      for (p = 1; p <= lastslackedge; p++)
       if (room[p] < 0) {
-       q = -room[p];
+       q = (int) -room[p];
        value += cost[p] * q;
       }
      if (infeasible) return 4;
@@ -1004,7 +1081,7 @@ public class mcNetflo
         solarc++;
         arcsol[0][solarc] = orig;
         arcsol[1][solarc] = tail;
-        flowsol[solarc] = load;
+        flowsol[solarc] = (int) load;
        }
        trial++;
        lead = head[trial];
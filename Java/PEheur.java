@@ -1,7 +1,9 @@
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Heuristics for the Fixed Charge Transportation Problem (FCTP)
@@ -18,24 +20,253 @@ public class PEheur extends FCTPls {
     public RandomCollection<Integer> rc1;
     public RandomCollection<Integer> rc2;
     public RandomCollection<Integer> rc3;
+    /** best solution of the current call of RNLS (kept to avoid allocating it on each call) */
+    private FCTPsol rnls_best = null;
+    /** adaptive size of the random neighbourhoods of RNLS (see getSampleSize) */
+    private FCTPsampleSize sampleSize = null;
+    private static final ThreadMXBean cpuTimer = ManagementFactory.getThreadMXBean();
+    /** true if the CPU-time of a thread can be measured (otherwise getCurrentThreadCpuTime returns -1) */
+    private static final boolean cpuTimeSupported = cpuTimer.isThreadCpuTimeSupported() && cpuTimer.isThreadCpuTimeEnabled();
+    /** true for worker objects, which leave the screen output and the output file to the calling object */
+    private boolean quiet = false;
 
 
     public PEheur(String fname) throws Exception {
         super(fname);
-
-        this.gvals1 = get_greedy_values();
-        this.gvals2 = get_greedy_values_2(5);
-        this.gvals3 = get_greedy_values_3(5);
-
-        this.rc1 = get_random_collection(gvals1, true);
-        this.rc2 = get_random_collection(gvals2, true);
-        this.rc3 = get_random_collection(gvals3, true);
+        initGreedyValues();
     }
 
     public PEheur(int mm, int nn, int[] s, int[] d, double[] tc, double[] fc, boolean copyDat) {
         super(mm, nn, s, d, tc, fc, copyDat);
     }
 
+    public PEheur(int mm, int nn, int[] s, int[] d, FCTPcost cst) {
+        super(mm, nn, s, d, cst);
+    }
+
+    /**
+     * Step of a pool construction (see constructPool) that builds one solution in a worker object
+     */
+    public interface PoolRecipe {
+        /**
+         * Builds a solution in worker.solution
+         *
+         * @param worker worker object; its solution is a copy of the calling object's solution on entry
+         * @param index  index of the solution in the pool
+         */
+        void build(PEheur worker, int index);
+    }
+
+    /**
+     * Returns a worker object for the parallel methods. The worker shares the data with this object
+     * (see initWorker), but has its own solution, work space and random number generator.
+     */
+    protected PEheur newWorker() {
+        PEheur w = (costs == null) ? new PEheur(m, n, supply, demand, tcost, fcost, false)
+                                   : new PEheur(m, n, supply, demand, costs);
+        w.initWorker(this);
+        return w;
+    }
+
+    /**
+     * Computes the greedy evaluations gvals1..3 of the arcs and the random collections rc1..3 drawn from them.
+     * Since they depend on the costs and on the arc capacities, this must be repeated whenever the data change
+     * (see FCTPheur.changeData).
+     */
+    protected void initGreedyValues() {
+        gvals1 = get_greedy_values();
+        gvals2 = get_greedy_values_2(5);
+        gvals3 = get_greedy_values_3(5);
+
+        rc1 = get_random_collection(gvals1, true);
+        rc2 = get_random_collection(gvals2, true);
+        rc3 = get_random_collection(gvals3, true);
+    }
+
+    /**
+     * Lets this worker object share the read-only data of src: candidate arcs of granular constructions,
+     * greedy evaluations and the random collections (which draw with the worker's own random number
+     * generator). The worker writes nothing to the screen or to the output file, since it may run
+     * concurrently with other workers; the caller reports the results (see reportPool).
+     *
+     * @param src object the worker is created for
+     */
+    protected void initWorker(PEheur src) {
+        shareCandidates(src);
+        gvals1 = src.gvals1;
+        gvals2 = src.gvals2;
+        gvals3 = src.gvals3;
+        arc_evaluation_measure = src.arc_evaluation_measure;
+        if (src.rc1 != null) rc1 = src.rc1.copy(randgen);
+        if (src.rc2 != null) rc2 = src.rc2.copy(randgen);
+        if (src.rc3 != null) rc3 = src.rc3.copy(randgen);
+        quiet = true;
+    }
+
+    /**
+     * Executes the tasks on the thread pool and waits until all are completed. An exception thrown by a
+     * task is passed on as unchecked exception.
+     *
+     * @param pool  the thread pool
+     * @param tasks the tasks
+     */
+    protected static void runAll(ExecutorService pool, List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> f : pool.invokeAll(tasks)) f.get();
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(exc);
+        } catch (ExecutionException exc) {
+            Throwable cause = exc.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Builds k solutions concurrently on FCTPparam.numThreads() worker objects. Each solution is built by
+     * recipe.build(worker, index) starting from a copy of the current solution, with the worker's random
+     * number generator seeded by a seed drawn from randgen for this index. The pool therefore does not
+     * depend on the number of threads. With an implicit cost model a single worker is used, since a cost
+     * model with a cache is not thread-safe.
+     *
+     * @param k      number of solutions
+     * @param recipe construction (and improvement) of a solution
+     * @return array of the k solutions, where the solution with index i is stored at position i
+     */
+    public FCTPsol[] constructPool(int k, PoolRecipe recipe) {
+        FCTPsol[] pool = new FCTPsol[k];
+        if (k <= 0) return pool;
+        long[] seed = new long[k];
+        for (int i = 0; i < k; i++) seed[i] = randgen.nextLong();
+        int nthreads = (costs == null) ? Math.min(FCTPparam.numThreads(), k) : 1;
+        AtomicInteger next = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int w = 0; w < nthreads; w++) {
+            PEheur worker = newWorker();
+            tasks.add(() -> {
+                for (int i = next.getAndIncrement(); i < k; i = next.getAndIncrement()) {
+                    worker.solution.Overwrite(solution);
+                    worker.randgen.setSeed(seed[i]);
+                    recipe.build(worker, i);
+                    pool[i] = new FCTPsol(worker.solution);
+                }
+                return null;
+            });
+        }
+        ExecutorService exec = Executors.newFixedThreadPool(nthreads);
+        try {
+            runAll(exec, tasks);
+        } finally {
+            exec.shutdown();
+        }
+        return pool;
+    }
+
+    /**
+     * Reports the solutions of a pool built by quiet worker objects in the order of their indices, like
+     * the calling object reports the result of IRNLS: the number of iterations and the objective value on
+     * the screen and the objective value in the output file.
+     *
+     * @param pool  the solutions (see constructPool)
+     * @param iters iters[i] is the number of iterations performed for building pool[i]
+     */
+    protected void reportPool(FCTPsol[] pool, int[] iters) {
+        for (int i = 0; i < pool.length; i++) {
+            System.out.format("%4d%17.2f%n", iters[i], pool[i].totalCost);
+            try {
+                fileWriter.write(pool[i].totalCost + "\n");
+            } catch (Exception exc) {
+                System.out.println("Error: " + exc.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Solves the LP relaxation with the cost (unit and fixed cost) of a random fraction frac of the arcs
+     * multiplied by a random factor drawn uniformly from [1-delta, 1+delta]. The resulting basic solution is
+     * evaluated with the true costs and stored in solution. If start is not null, the relaxation is solved by
+     * the transportation simplex starting from the basis of start (see FCTPbas.LPheu(FCTPsol)), which takes
+     * the fewer pivots the fewer arcs are perturbed.
+     *
+     * @param delta maximum relative change of the cost of an arc
+     * @param frac  probability that the cost of an arc is changed
+     * @param start basic solution whose basis is used as initial basis of the LP solver (or null)
+     * @return true if the LP relaxation was solved
+     */
+    public boolean perturbedLPheu(double delta, double frac, FCTPsol start) {
+        double[] factor = new double[narcs];
+        for (int arc = 0; arc < narcs; arc++) {
+            factor[arc] = (randgen.nextDouble() < frac) ? 1.0 + delta * (2.0 * randgen.nextDouble() - 1.0) : 1.0;
+        }
+        boolean ok;
+        if (costs != null) {
+            // Implicit cost model: wrap it instead of modifying cost arrays
+            FCTPcost old_costs = costs;
+            costs = new FCTPcost() {
+                public double gettcost(int i, int j) {
+                    return factor[i * n + j] * old_costs.gettcost(i, j);
+                }
+
+                public double getfcost(int i, int j) {
+                    return factor[i * n + j] * old_costs.getfcost(i, j);
+                }
+            };
+            ok = LPheu(start);
+            costs = old_costs;
+            solution.ComputeCost(costs);
+            return ok;
+        }
+        // Perturb copies of the costs, since the cost arrays may be shared with worker objects
+        double[] old_tc = tcost;
+        double[] old_fc = fcost;
+        tcost = new double[narcs];
+        fcost = new double[narcs];
+        for (int arc = 0; arc < narcs; arc++) {
+            tcost[arc] = factor[arc] * old_tc[arc];
+            fcost[arc] = factor[arc] * old_fc[arc];
+        }
+        ok = LPheu(start);
+        tcost = old_tc;
+        fcost = old_fc;
+        solution.ComputeCost(fcost, tcost);
+        return ok;
+    }
+
+    /**
+     * Generates up to k distinct basic solutions from LP relaxations with randomly perturbed costs (see
+     * perturbedLPheu). The first solution is the LP solution for the true costs. The perturbed relaxations
+     * are solved concurrently by constructPool; each worker has its own transportation simplex, which is
+     * started from the basis of the unperturbed LP solution whatever FCTPparam.lp_solver is. Relaxations
+     * giving a solution found before are replaced by new ones, but at most 2k relaxations are solved. The
+     * current solution is not changed.
+     *
+     * @param k     number of solutions
+     * @param delta maximum relative change of the cost of an arc
+     * @param frac  fraction of the arcs whose cost is changed
+     * @return array of the distinct solutions (at most k)
+     */
+    public FCTPsol[] perturbedLPStarts(int k, double delta, double frac) {
+        ArrayList<FCTPsol> starts = new ArrayList<FCTPsol>();
+        if (k <= 0) return new FCTPsol[0];
+        FCTPsol cur_sol = new FCTPsol(solution);
+        FCTPsol lp_sol = LPheu() ? new FCTPsol(solution) : null;
+        if (lp_sol != null) starts.add(lp_sol);
+        int maxTrial = 2 * k;
+        int numTrial = starts.size();
+        while ((starts.size() < k) && (numTrial < maxTrial)) {
+            int num = Math.min(k - starts.size(), maxTrial - numTrial);
+            FCTPsol[] sols = constructPool(num, (w, i) -> w.perturbedLPheu(delta, frac, lp_sol));
+            for (FCTPsol sol : sols) {
+                if ((starts.size() < k) && !sol.containedIn(starts)) starts.add(sol);
+            }
+            numTrial += num;
+        }
+        solution.Overwrite(cur_sol);
+        return starts.toArray(new FCTPsol[0]);
+    }
+
 
     /**
      * Greedy1 evaluation
@@ -171,7 +402,7 @@ public class PEheur extends FCTPls {
      * See https://stackoverflow.com/questions/6409652/random-weighted-selection-in-java
      */
     public class RandomCollection<E> {
-        private final NavigableMap<Double, E> map = new TreeMap<Double, E>();
+        private final NavigableMap<Double, E> map;
         private final Random random;
         private double total = 0;
         private double max_val = 0;
@@ -181,7 +412,21 @@ public class PEheur extends FCTPls {
         }
 
         public RandomCollection(Random random) {
+            this(random, new TreeMap<Double, E>());
+        }
+
+        private RandomCollection(Random random, NavigableMap<Double, E> map) {
             this.random = random;
+            this.map = map;
+        }
+
+        // Copy sharing the elements with this collection that draws with another random number generator.
+        // The copy must not be added to.
+        public RandomCollection<E> copy(Random random) {
+            RandomCollection<E> rc = new RandomCollection<E>(random, map);
+            rc.total = total;
+            rc.max_val = max_val;
+            return rc;
         }
 
         // Find largest eval measure value for the purpose of inverting probabilities
@@ -198,6 +443,11 @@ public class PEheur extends FCTPls {
             return this;
         }
 
+        // True if no element has a positive weight
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
         // Get element from set with probability according to its weight
         public E next() {
             double value = random.nextDouble() * total;
@@ -226,34 +476,50 @@ public class PEheur extends FCTPls {
             }
             j++;
         }
+        // If no arc got a positive weight (e.g. all evaluations are equal), draw the arcs uniformly
+        if (rc.isEmpty()) {
+            for (j = 0; j < gvals.length; j++) if (solution.arc_stat[j] != BASIC) rc.add(1.0, j, false);
+        }
 
         return rc;
     }
 
     /**
-     * Random neighbourhood local search
+     * Random neighbourhood local search. The random neighbourhood consists of narcs/splits distinct arcs drawn
+     * by a partial shuffle of a permutation of the arcs (see drawArc), so that no memory is allocated. If an
+     * active arc pool is used (see getArcPool), the random neighbourhood is drawn from the arcs in the pool,
+     * which is priced anew when it becomes stale. If the sample size is adaptive (see getSampleSize), it is
+     * adapted at the end of each call.
      *
      * @param max_iter maximum number of iterations
      * @param splits   the number of partitions of the total neighbourhood, governs size of random neighbourhood
      */
     public void RNLS(int max_iter, int splits) {
         int iter = 0;
-        FCTPsol best_sol = new FCTPsol(solution);
+        if (rnls_best == null) rnls_best = new FCTPsol(solution); else rnls_best.Overwrite(solution);
+        FCTPsol best_sol = rnls_best;
         boolean improved = false;
+        FCTParcPool pool = getArcPool();
+        FCTPsampleSize adaptive = getSampleSize();
 
         do {
-            // Generate random neighbourhood
-            Set<Integer> random_neighbourhood = new LinkedHashSet<Integer>();
-            while (random_neighbourhood.size() < narcs / splits) {
-                Integer next = randgen.nextInt(narcs);
-                // As we're adding to a set, this will automatically do a containment check
-                random_neighbourhood.add(next);
+            // Size of the random neighbourhood
+            int size = (adaptive == null) ? narcs / splits : adaptive.size(narcs, splits);
+            if (pool != null) {
+                if (pool.isStale()) pool.price();
+                if (pool.len == 0) break;
+                size = Math.min(pool.len, size);
             }
 
             // Run through the random neighbourhood and find best move
             double bestSav = -9999999;
-            for (int arc : random_neighbourhood) {
+            long start = (adaptive == null) ? 0 : cpuNanos();
+            int evals = 0;
+            for (int t = 0; t < size; t++) {
+                int arc = (pool == null) ? drawArc(t) : pool.draw(t, randgen);
                 if (solution.arc_stat[arc] != BASIC) {
+                    evals++;
+                    if (pool != null) pool.numEvals++;
                     double saving = getCostSav(arc);
                     if (saving != 0 && saving > bestSav) {
                         bestSav = saving;
@@ -261,8 +527,16 @@ public class PEheur extends FCTPls {
                     }
                 }
             }
+            if (adaptive != null) adaptive.record(evals, cpuNanos() - start, bestSav);
+            if ((pool != null) && (bestSav == -9999999)) {
+                // All sampled arcs of the pool have become basic
+                pool.price();
+                iter++;
+                continue;
+            }
 
             DoMove();
+            if (pool != null) pool.pivoted();
 
             // Check for new best solution
             if (solution.totalCost < best_sol.totalCost) {
@@ -273,6 +547,7 @@ public class PEheur extends FCTPls {
             iter++;
 
         } while (iter < max_iter);
+        if (adaptive != null) adaptive.adapt();
 
         // If a new best solution has been found, we move back to that one
         if (improved) {
@@ -280,6 +555,24 @@ public class PEheur extends FCTPls {
         }
     }
 
+    /**
+     * Returns the CPU-time of the current thread in nanoseconds, or the elapsed time of the JVM's
+     * high-resolution clock if the JVM cannot measure the CPU-time of threads
+     */
+    private static long cpuNanos() {
+        return cpuTimeSupported ? cpuTimer.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /**
+     * Returns the adaptive size of the random neighbourhoods sampled by RNLS, or null if RNLS samples a
+     * fixed proportion of the arcs (FCTPparam.rnls_adapt = 0)
+     */
+    public FCTPsampleSize getSampleSize() {
+        if (FCTPparam.rnls_adapt <= 0) return null;
+        if (sampleSize == null) sampleSize = new FCTPsampleSize();
+        return sampleSize;
+    }
+
     /**
      * Random neighbourhood local search, faster implementation, but the neighbourhood may include duplicates
      * we did not use this in our experiments, but it would likely speed up the procedure slightly.
@@ -444,8 +737,31 @@ public class PEheur extends FCTPls {
         }
 
         int[] k_biggest = get_max_k_idx(arc_costs, n_kicked);
-        double[] old_fc = new double[narcs];
-        System.arraycopy(fcost, 0, old_fc, 0, narcs);   //Store old fcosts
+        if (costs != null) {
+            // Implicit cost model: wrap it instead of modifying cost arrays
+            FCTPcost old_costs = costs;
+            final int[] kicked = Arrays.copyOf(k_biggest, n_kicked);
+            Arrays.sort(kicked);
+            costs = new FCTPcost() {
+                public double gettcost(int i, int j) {
+                    return old_costs.gettcost(i, j);
+                }
+
+                public double getfcost(int i, int j) {
+                    double fc = old_costs.getfcost(i, j);
+                    return (Arrays.binarySearch(kicked, i * n + j) >= 0) ? 5 * fc : fc;
+                }
+            };
+            solution.ComputeCost(costs);
+            LS_first_acc();  // Search with modified cost structure
+
+            costs = old_costs;
+            solution.ComputeCost(costs);
+            return;
+        }
+        // Modify a copy of the fixed costs, since the cost arrays may be shared with worker objects
+        double[] old_fc = fcost;   //Store old fcosts
+        fcost = Arrays.copyOf(old_fc, narcs);
 
         for (int i = 0; i < n_kicked; i++) {
             fcost[k_biggest[i]] = fcost[k_biggest[i]] * 5;
@@ -454,7 +770,7 @@ public class PEheur extends FCTPls {
         solution.ComputeCost(fcost, tcost);
         LS_first_acc();  // Search with modified cost structure
 
-        System.arraycopy(old_fc, 0, fcost, 0, narcs);  //Restore old fcosts
+        fcost = old_fc;  //Restore old fcosts
         solution.ComputeCost(fcost, tcost);
     }
 
@@ -485,7 +801,7 @@ public class PEheur extends FCTPls {
         Arrays.fill(arc_costs, 0.0);
         for (int arc = 0; arc < narcs; arc++) {
             if (solution.flow[arc] > 0) {
-                arc_costs[arc] = (fcost[arc] + tcost[arc] * solution.flow[arc]) / solution.flow[arc];
+                arc_costs[arc] = (getfcost(arc) + gettcost(arc) * solution.flow[arc]) / solution.flow[arc];
             }
         }
         return arc_costs;
@@ -546,6 +862,7 @@ public class PEheur extends FCTPls {
             }
             RNLS(50, 20);
             LS_first_acc();
+            getFreqMem().add(solution);
 
             // The solution obtained after local search is "accepted", if within threshold 1.05 of currently stored sol
             boolean accept = (solution.totalCost < cur_sol.totalCost * 1.05);
@@ -577,9 +894,11 @@ public class PEheur extends FCTPls {
     }
 
     /**
-     * Takes array of solutions and calculates arc evaluation measures based on the average solution value
-     * in solutions where the arc is present. Then, based on these evaluations an Evaluation based IRNLS i done
-     * Afterwards, we reverse the evaluations and do the Evaluation based IRNLS again.
+     * Takes array of solutions, records them in the long-term frequency memory (see getFreqMem) and
+     * calculates arc evaluation measures from the memory, based on the average solution value in solutions
+     * where the arc is present. Besides the given solutions, the memory contains the local optima recorded
+     * before by ILS and the Evaluation based IRNLS. Then, based on these evaluations an Evaluation based
+     * IRNLS i done. Afterwards, we reverse the evaluations and do the Evaluation based IRNLS again.
      *
      * @param init_sols Array of high quality solutions
      * @param max_runs  Maximum number of iterations without improvement to the objective value
@@ -591,11 +910,7 @@ public class PEheur extends FCTPls {
             max_runs = FCTPparam.max_no_imp;
         }
         int n_runs = init_sols.length;
-        double[] counts = new double[narcs];
-        double[] sol_avgs = new double[narcs];
-
         FCTPsol final_sol = new FCTPsol(solution);
-        double worst = 0;
 
         // Get arc evaluations
         for (FCTPsol sol : init_sols) {
@@ -603,30 +918,10 @@ public class PEheur extends FCTPls {
             if (sol.totalCost < final_sol.totalCost) {
                 final_sol.Overwrite(sol);
             }
-
-            if (sol.totalCost > worst) worst = sol.totalCost;
-
-            for (int i = 0; i < narcs; i++) {
-                if (sol.flow[i] > 0) {
-                    counts[i]++;
-                    sol_avgs[i] += sol.totalCost;
-                }
-            }
-
-        }
-
-        double[] sol_avgs_reversed = new double[narcs];
-
-        // Calculate final arc evaluations
-        for (int i = 0; i < narcs; i++) {
-            if (counts[i] > 0) {
-                sol_avgs_reversed[i] = worst - sol_avgs[i] / counts[i] + 1.0; //
-                sol_avgs[i] = (sol_avgs[i] / counts[i]); //reverse greedy
-            } else {
-                sol_avgs_reversed[i] = 1.0;
-                sol_avgs[i] = worst * 5;
-            }
+            getFreqMem().add(sol);
         }
+        double[] sol_avgs = getFreqMem().avgCosts();
+        double[] sol_avgs_reversed = getFreqMem().reversedAvgCosts(); //reverse greedy
 
         // Get collection which arcs can be drawn from according to arc evaluations
         RandomCollection<Integer> rc_intensify = get_random_collection(sol_avgs, true);
@@ -691,9 +986,10 @@ public class PEheur extends FCTPls {
         int num_cur_fail = 0; //Time since since last reset to cur sol
         int num_best_fail = 0; //Time since last reset to best sol
         int iter = 0;
+        boolean display = FCTPparam.screen_on && !quiet;
 
         // Display something on the screen, so that we can see that something happens
-        if (FCTPparam.screen_on) {
+        if (display) {
             System.out.println("=============== DOING IRNLS ================");
             System.out.println("ITER  OBJ (before LS)  OBJ (after LS)  BEST_OBJ");
         }
@@ -704,7 +1000,7 @@ public class PEheur extends FCTPls {
 
         do {
             iter++;
-            if (FCTPparam.screen_on) System.out.format("%4d%17.2f", iter, solution.totalCost);
+            if (display) System.out.format("%4d%17.2f", iter, solution.totalCost);
 
             // Improve solution using RNLS
             LS_first_acc();
@@ -734,7 +1030,7 @@ public class PEheur extends FCTPls {
                 num_best_fail = 0;
             }
 
-            if (FCTPparam.screen_on) System.out.format("%16.2f%10.2f%n", solution.totalCost, best_sol.totalCost);
+            if (display) System.out.format("%16.2f%10.2f%n", solution.totalCost, best_sol.totalCost);
             if (iter % 2 == 0) RNLS(50, 20);
             else {
                 component = randgen.nextInt(7); //Draw random element in [0,6] (pool of mutations)
@@ -765,12 +1061,14 @@ public class PEheur extends FCTPls {
 
         } while (num_fail < max_runs);
         solution.Overwrite(best_sol);
-        System.out.format("%4d%17.2f%n", iter, solution.totalCost);
+        if (!quiet) System.out.format("%4d%17.2f%n", iter, solution.totalCost);
         iterCount = iter;
-        try {
-            fileWriter.write(solution.totalCost + "\n");
-        } catch (Exception exc) {
-            System.out.println("Error: " + exc.getMessage());
+        if (!quiet) {
+            try {
+                fileWriter.write(solution.totalCost + "\n");
+            } catch (Exception exc) {
+                System.out.println("Error: " + exc.getMessage());
+            }
         }
     }
 
@@ -789,9 +1087,10 @@ public class PEheur extends FCTPls {
         int num_cur_fail = 0; //Time since since last reset to cur sol
         int num_best_fail = 0;  //Time since last reset to best sol
         int iter = 0;
+        boolean display = FCTPparam.screen_on && !quiet;
 
         // Display something on the screen, so that we can see that something happens
-        if (FCTPparam.screen_on) {
+        if (display) {
             System.out.println("=============== DOING IRNLS_v2 ================");
             System.out.println("ITER  OBJ (before LS)  OBJ (after LS)  BEST_OBJ");
         }
@@ -802,11 +1101,11 @@ public class PEheur extends FCTPls {
 
         do {
             iter++;
-            if (FCTPparam.screen_on) System.out.format("%4d%17.2f", iter, solution.totalCost);
+            if (display) System.out.format("%4d%17.2f", iter, solution.totalCost);
 
             LS_first_acc();
 
-            if (FCTPparam.screen_on) System.out.format("%16.2f%10.2f%n", solution.totalCost, best_sol.totalCost);
+            if (display) System.out.format("%16.2f%10.2f%n", solution.totalCost, best_sol.totalCost);
 
             boolean accept = (solution.totalCost < cur_sol.totalCost || (num_cur_fail > 7 && solution.totalCost < cur_sol.totalCost * 1.03));
 
@@ -844,7 +1143,7 @@ public class PEheur extends FCTPls {
         } while (num_fail < max_runs);
         //Now set the library's internal solution to the bst one found above
         solution.Overwrite(best_sol);
-        System.out.format("%4d%17.2f%n", iter, solution.totalCost);
+        if (!quiet) System.out.format("%4d%17.2f%n", iter, solution.totalCost);
         iterCount = iter;
     }
 
@@ -919,7 +1218,9 @@ public class PEheur extends FCTPls {
     }
 
     /**
-     * A population based iterated random neighbourhood local search
+     * A population based iterated random neighbourhood local search. The first solution of the initial
+     * population is obtained from the current solution (e.g. a warm start, see FCTPheur.warmStart), the others
+     * from perturbed LP solutions and RandGreedy. The search never returns a solution worse than the current one.
      *
      * @param population_sizes A list of decreasing population sizes, e.g. [100, 50, 10] will create 100
      *                         initial solutions with IRNLS, and then apply the population based procedure with these
@@ -938,23 +1239,21 @@ public class PEheur extends FCTPls {
             populations[i] = new FCTPsol[population_sizes[i]];
         }
 
-        // Create initial population of good solutions with IRNLS
-        for (int i = 0; i < population_sizes[0]; i++) {
-            // Here you can adjust proportion of RandGreedy to LPheu
-            if (i > 2 * population_sizes[0] / 3) RandGreedy(0.4);
-            else {
-                LPheu();
-                if (i > population_sizes[0] / 5) {
-                    Kicksolution((m + n - 1) / 4);
-                    if (i > population_sizes[0] / 3) Kicksolution((m + n - 1) / 4);
-                }
-            }
-
-            if (v2) IRNLS_v2(max_runs[0]);
-            else IRNLS(max_runs[0]);
-
-            populations[0][i] = new FCTPsol(solution);
-        }
+        // Create initial population of good solutions with IRNLS (built concurrently)
+        int size0 = population_sizes[0];
+        // Here you can adjust proportion of RandGreedy to perturbed LP solutions
+        FCTPsol[] lp_starts = perturbedLPStarts(2 * size0 / 3 + 1, FCTPparam.lp_perturb, FCTPparam.lp_perturb_arcs);
+        int[] iters0 = new int[size0];
+        populations[0] = constructPool(size0, (w, i) -> {
+            // Solution 0 is improved from the current solution (the worker's solution is a copy of it)
+            if (i > lp_starts.length) w.RandGreedy(0.4);
+            else if (i > 0) w.solution.Overwrite(lp_starts[i - 1]);
+
+            if (v2) w.IRNLS_v2(max_runs[0]);
+            else w.IRNLS(max_runs[0]);
+            iters0[i] = w.iterCount;
+        });
+        reportPool(populations[0], iters0);
 
         // Improve population by intesification and then diversification
         FCTPsol[] current_population = intensify_diversify(populations[0], max_runs[0], v2);
@@ -970,17 +1269,19 @@ public class PEheur extends FCTPls {
 
             int[] indices = get_max_k_idx(costs, population_sizes[j]);
 
-            // Try to improve these solutions before next population based search
-            int i = 0;
-            for (int idx : indices) {
-                solution.Overwrite(current_population[idx]);
-                if (v2) IRNLS_v2(max_runs[j]);
+            // Try to improve these solutions before next population based search (concurrently)
+            FCTPsol[] selected = current_population;
+            int runs = max_runs[j];
+            int[] iters = new int[indices.length];
+            populations[j] = constructPool(indices.length, (w, i) -> {
+                w.solution.Overwrite(selected[indices[i]]);
+                if (v2) w.IRNLS_v2(runs);
                 else {
-                    IRNLS(max_runs[j]);
+                    w.IRNLS(runs);
                 }
-                populations[j][i] = new FCTPsol(solution);
-                i++;
-            }
+                iters[i] = w.iterCount;
+            });
+            reportPool(populations[j], iters);
             current_population = intensify_diversify(populations[j], max_runs[j], v2);
         }
 
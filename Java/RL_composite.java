@@ -79,4 +79,14 @@ public class RL_composite extends FCTPheur {
         }
     }
 
+    /**
+     * State of the adaptive RNLS sample size that can be used as features by RL agents
+     * @return Array {scale, success rate, improvement per second, nanoseconds per evaluation}, or null
+     *         if the sample size is not adaptive (FCTPparam.rnls_adapt = 0)
+     */
+    public double[] get_rnls_state(){
+        FCTPsampleSize adaptive = getSampleSize();
+        return (adaptive == null) ? null : adaptive.getState();
+    }
+
 }